@@ -0,0 +1,7 @@
+-- Índices para la paginación por keyset de GET /api/products (campo de orden + id como desempate).
+-- CONCURRENTLY evita bloquear escrituras sobre products; ejecutar fuera de una transacción.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_name_id ON products (name, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_price_id ON products (price, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_stock_id ON products (stock, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_created_at_id ON products (created_at, id);
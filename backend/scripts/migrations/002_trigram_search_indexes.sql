@@ -0,0 +1,17 @@
+-- Índices trigram para los filtros de subcadena (ILIKE '%texto%') de productos, usuarios y comparaciones.
+-- Requiere la extensión pg_trgm; ejecutar fuera de una transacción por CONCURRENTLY.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_name_trgm ON products USING gin (name gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_description_trgm ON products USING gin (description gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_model_trgm ON products USING gin (model gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_name_trgm ON users USING gin (name gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_trgm ON users USING gin (email gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comparisons_title_trgm ON comparisons USING gin (title gin_trgm_ops);
+
+ANALYZE products;
+ANALYZE users;
+ANALYZE comparisons;
@@ -0,0 +1,11 @@
+-- Versión por tabla para los ETag de las lecturas del catálogo: una secuencia por tabla.
+-- CatalogETagService la avanza con nextval después del commit de cada escritura y la lee antes de la
+-- consulta. nextval no espera a otras transacciones ni se deshace, así que las escrituras no comparten
+-- ninguna fila ni bloqueo, y al vivir en la base de datos la ven todas las instancias y sobrevive a reinicios.
+-- Una escritura hecha a mano con SQL debe avanzar también la secuencia de la tabla, por ejemplo
+-- SELECT nextval('catalog_version_products'); si no, los clientes siguen recibiendo 304 con datos antiguos.
+
+CREATE SEQUENCE IF NOT EXISTS catalog_version_brands;
+CREATE SEQUENCE IF NOT EXISTS catalog_version_categories;
+CREATE SEQUENCE IF NOT EXISTS catalog_version_products;
+CREATE SEQUENCE IF NOT EXISTS catalog_version_comparisons;
@@ -0,0 +1,20 @@
+-- Resumen de valoraciones por producto (nº, suma e histograma de 1 a 5 estrellas).
+-- Lo mantiene RatingService en la misma transacción que cada alta, edición o borrado de rating;
+-- el relleno inicial lo hace RatingSummaryRebuildJob (comparathor.ratings.summary.rebuild-on-startup=true).
+
+CREATE TABLE IF NOT EXISTS product_rating_summary (
+    product_id     BIGINT PRIMARY KEY REFERENCES products (id) ON DELETE CASCADE,
+    rating_count   INTEGER        NOT NULL DEFAULT 0,
+    rating_sum     NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    star1          INTEGER        NOT NULL DEFAULT 0,
+    star2          INTEGER        NOT NULL DEFAULT 0,
+    star3          INTEGER        NOT NULL DEFAULT 0,
+    star4          INTEGER        NOT NULL DEFAULT 0,
+    star5          INTEGER        NOT NULL DEFAULT 0,
+    rating_average DOUBLE PRECISION GENERATED ALWAYS AS ((rating_sum / NULLIF(rating_count, 0))::double precision) STORED,
+    updated_at     TIMESTAMP      NOT NULL DEFAULT now()
+);
+
+-- Los listados de productos muestran nº y media de valoraciones: las valoraciones tienen su propia versión
+-- de ETag (ver 003_catalog_versions.sql), que CatalogETagService avanza con cada RatingChangedEvent.
+CREATE SEQUENCE IF NOT EXISTS catalog_version_ratings;
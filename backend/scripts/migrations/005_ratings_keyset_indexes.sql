@@ -0,0 +1,7 @@
+-- Índices para la paginación por keyset de ratings sobre (created_at, id), filtrando por producto o por usuario.
+-- CONCURRENTLY evita bloquear escrituras sobre ratings; ejecutar fuera de una transacción.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_ratings_product_created_id ON ratings (product_id, created_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_ratings_user_created_id ON ratings (user_id, created_at, id);
+
+ANALYZE ratings;
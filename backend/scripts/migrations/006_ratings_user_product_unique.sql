@@ -0,0 +1,21 @@
+-- Una valoración por usuario y producto: registerRating pasa a ser un upsert sobre esta restricción,
+-- que además sirve a la consulta en lote de las valoraciones del usuario (user_id = ? AND product_id = ANY(?)).
+-- Se conservan la valoración más reciente de cada par y se borran las duplicadas.
+-- El índice se crea con CONCURRENTLY para no bloquear escrituras sobre ratings y la restricción lo adopta
+-- después (solo un bloqueo breve de metadatos); ejecutar fuera de una transacción. Si la creación falla por un
+-- duplicado escrito entretanto, borrar el índice inválido (DROP INDEX CONCURRENTLY uq_ratings_user_product)
+-- y repetir desde el principio.
+-- Después, reconstruir product_rating_summary (comparathor.ratings.summary.rebuild-on-startup=true).
+
+DELETE FROM ratings r
+USING (
+    SELECT id,
+           ROW_NUMBER() OVER (PARTITION BY user_id, product_id ORDER BY updated_at DESC NULLS LAST, id DESC) AS position
+    FROM ratings
+) ranked
+WHERE r.id = ranked.id
+  AND ranked.position > 1;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uq_ratings_user_product ON ratings (user_id, product_id);
+
+ALTER TABLE ratings ADD CONSTRAINT uq_ratings_user_product UNIQUE USING INDEX uq_ratings_user_product;
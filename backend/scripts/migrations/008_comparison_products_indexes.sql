@@ -0,0 +1,11 @@
+-- Índices para los filtros por producto de las comparaciones (EXISTS sobre comparison_products):
+-- (comparison_id, product_id) resuelve la semi-join desde cada comparación y carga sus productos;
+-- (product_id) sirve para buscar las comparaciones que contienen un producto.
+-- CONCURRENTLY evita bloquear escrituras; ejecutar fuera de una transacción.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comparison_products_comparison_product
+    ON comparison_products (comparison_id, product_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comparison_products_product
+    ON comparison_products (product_id);
+
+ANALYZE comparison_products;
@@ -0,0 +1,26 @@
+-- Un producto aparece una sola vez en cada comparación: updateComparison aplica solo la diferencia de
+-- productos y las inserciones usan ON CONFLICT sobre esta restricción. Su índice único sustituye al
+-- índice (comparison_id, product_id) de la migración 008.
+-- Se conserva la fila más antigua de cada par y se borran las duplicadas.
+-- Los índices se crean y borran con CONCURRENTLY para no bloquear escrituras sobre comparison_products y la
+-- restricción adopta el índice único (solo un bloqueo breve de metadatos); ejecutar fuera de una transacción.
+-- Si la creación falla por un duplicado escrito entretanto, borrar el índice inválido
+-- (DROP INDEX CONCURRENTLY uq_comparison_products_comparison_product) y repetir desde el principio.
+
+DELETE FROM comparison_products cp
+USING (
+    SELECT id,
+           ROW_NUMBER() OVER (PARTITION BY comparison_id, product_id ORDER BY id) AS position
+    FROM comparison_products
+) ranked
+WHERE cp.id = ranked.id
+  AND ranked.position > 1;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uq_comparison_products_comparison_product
+    ON comparison_products (comparison_id, product_id);
+
+ALTER TABLE comparison_products
+    ADD CONSTRAINT uq_comparison_products_comparison_product
+    UNIQUE USING INDEX uq_comparison_products_comparison_product;
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_comparison_products_comparison_product;
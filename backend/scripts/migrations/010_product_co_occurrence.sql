@@ -0,0 +1,30 @@
+-- "Comparado a menudo con": nº de comparaciones en las que aparecen juntos dos productos.
+-- Se guardan las dos direcciones de cada par para leer los vecinos de un producto con un solo
+-- recorrido del índice (product_id, pair_count DESC). ComparisonService la mantiene al crear, editar
+-- y borrar comparaciones, también las de un usuario que se borra (UserService.deleteUser las borra una a una
+-- antes de que el ON DELETE CASCADE de users se las lleve sin descontar sus pares); al borrar un producto,
+-- sus pares se van en cascada.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS product_co_occurrence (
+    product_id       BIGINT  NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    other_product_id BIGINT  NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    pair_count       INTEGER NOT NULL,
+    PRIMARY KEY (product_id, other_product_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_co_occurrence_top
+    ON product_co_occurrence (product_id, pair_count DESC, other_product_id);
+
+-- Relleno inicial desde las comparaciones existentes (requiere la restricción única de la migración 009)
+INSERT INTO product_co_occurrence (product_id, other_product_id, pair_count)
+SELECT a.product_id, b.product_id, COUNT(*)
+FROM comparison_products a
+JOIN comparison_products b ON b.comparison_id = a.comparison_id AND b.product_id <> a.product_id
+GROUP BY a.product_id, b.product_id
+ON CONFLICT (product_id, other_product_id) DO UPDATE SET pair_count = EXCLUDED.pair_count;
+
+COMMIT;
+
+ANALYZE product_co_occurrence;
@@ -0,0 +1,11 @@
+-- La paginación por keyset de GET /api/products ordena por COALESCE(columna, relleno) para no perder las filas
+-- con NULL (ProductKeysetColumn en ProductMapper.xml). Estos índices cubren esas expresiones; los de la
+-- migración 001 se mantienen para el orden por desplazamiento, que sigue usando la columna sin COALESCE.
+-- CONCURRENTLY evita bloquear escrituras sobre products; ejecutar fuera de una transacción.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_name_keyset ON products ((COALESCE(name, '')), id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_price_keyset ON products ((COALESCE(price, 0)), id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_stock_keyset ON products ((COALESCE(stock, 0)), id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_created_at_keyset ON products ((COALESCE(created_at, '-infinity')), id);
+
+ANALYZE products;
@@ -0,0 +1,8 @@
+package com.comparathor.catalog;
+
+/**
+ * Página resuelta por ColumnarProductCatalog: ids en orden y total exacto de
+ * coincidencias.
+ */
+public record CatalogPage(long[] productIds, int total) {
+}
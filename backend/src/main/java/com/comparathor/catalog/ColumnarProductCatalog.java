@@ -0,0 +1,357 @@
+package com.comparathor.catalog;
+
+import com.comparathor.event.ProductChangedEvent;
+import com.comparathor.model.Product;
+import com.comparathor.model.ProductFilter;
+import com.comparathor.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Copia en memoria, por columnas, de los campos filtrables del catálogo
+ * (precio, stock, fecha de alta, categoría y marca). Evalúa los mismos
+ * predicados que ProductFilterConditions y las ordenaciones numéricas sin ir a
+ * la base de datos; ProductService solo hidrata las filas de la página.
+ *
+ * Se activa con comparathor.catalog.columnar.enabled=true. La búsqueda por
+ * texto y la ordenación por nombre siguen resolviéndose en SQL.
+ */
+@Component
+@ConditionalOnProperty(name = "comparathor.catalog.columnar.enabled", havingValue = "true")
+public class ColumnarProductCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarProductCatalog.class);
+
+    private static final int NULL_STOCK = Integer.MIN_VALUE;
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[1024];
+    private double[] prices = new double[1024];
+    private int[] stocks = new int[1024];
+    private long[] createdAt = new long[1024];
+    private long[] categoryIds = new long[1024];
+    private long[] brandIds = new long[1024];
+    private final BitSet live = new BitSet();
+    private final Map<Long, BitSet> byCategory = new HashMap<>();
+    private final Map<Long, BitSet> byBrand = new HashMap<>();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int size;
+    private volatile boolean loaded;
+
+    public ColumnarProductCatalog(ProductRepository productRepository, TransactionTemplate transactionTemplate) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            live.clear();
+            byCategory.clear();
+            byBrand.clear();
+            slotById.clear();
+            freeSlots.clear();
+            size = 0;
+            transactionTemplate.executeWithoutResult(status ->
+                    productRepository.streamAllProducts(context -> put(context.getResultObject())));
+            loaded = true;
+            logger.info("Catálogo columnar cargado: {} productos en {} ms",
+                    slotById.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<Long> productIds = event.getProductIds();
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Product> products = event.getType() == ProductChangedEvent.Type.DELETED
+                ? List.of()
+                : productRepository.findByIds(productIds.toArray(Long[]::new));
+
+        lock.writeLock().lock();
+        try {
+            Set<Long> found = new HashSet<>();
+            for (Product product : products) {
+                put(product);
+                found.add(product.getId());
+            }
+            for (Long productId : productIds) {
+                if (!found.contains(productId)) {
+                    remove(productId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indica si la consulta se puede resolver aquí: sin búsqueda por texto y
+     * ordenando por un campo numérico o por fecha.
+     */
+    public boolean canServe(ProductFilter filter, String sortField) {
+        return loaded && filter.getSearch() == null
+                && (sortField == null || switch (sortField) {
+                    case "id", "price", "stock", "createdAt" -> true;
+                    default -> false;
+                });
+    }
+
+    /**
+     * Evalúa el filtro y devuelve los ids de la página pedida. Con clampToTotal
+     * aplica la misma corrección de offset que el listado SQL con total exacto
+     * cuando la página se sale del resultado.
+     */
+    public CatalogPage query(ProductFilter filter, String sortField, String sortOrder, int page, int pageSize,
+                             boolean clampToTotal) {
+        lock.readLock().lock();
+        try {
+            int[] matches = match(filter);
+            int total = matches.length;
+            int offset = (clampToTotal && page * pageSize >= total) ? Math.max(0, total - pageSize) : page * pageSize;
+            int[] top = topK(matches, Math.min(total, offset + pageSize), sortField, "asc".equalsIgnoreCase(sortOrder));
+            long[] pageIds = new long[Math.max(0, top.length - offset)];
+            for (int i = offset; i < top.length; i++) {
+                pageIds[i - offset] = ids[top[i]];
+            }
+            return new CatalogPage(pageIds, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] match(ProductFilter filter) {
+        BitSet candidates = (BitSet) live.clone();
+        if (filter.getCategoryId() != null) {
+            candidates.and(byCategory.getOrDefault(filter.getCategoryId(), new BitSet()));
+        }
+        if (filter.getBrandId() != null) {
+            candidates.and(byBrand.getOrDefault(filter.getBrandId(), new BitSet()));
+        }
+        double minPrice = filter.getMinPrice() != null ? filter.getMinPrice() : Double.NEGATIVE_INFINITY;
+        double maxPrice = filter.getMaxPrice() != null ? filter.getMaxPrice() : Double.POSITIVE_INFINITY;
+        boolean priceFiltered = filter.getMinPrice() != null || filter.getMaxPrice() != null;
+        int minStock = filter.getMinStock() != null ? filter.getMinStock() : Integer.MIN_VALUE;
+        int maxStock = filter.getMaxStock() != null ? filter.getMaxStock() : Integer.MAX_VALUE;
+        boolean stockFiltered = filter.getMinStock() != null || filter.getMaxStock() != null;
+        long from = filter.getStartDate() != null ? toMicros(filter.getStartDate()) : Long.MIN_VALUE;
+        long to = filter.getEndDate() != null ? toMicros(filter.getEndDate()) : Long.MAX_VALUE;
+        boolean dateFiltered = filter.getStartDate() != null || filter.getEndDate() != null;
+
+        int[] matches = new int[candidates.cardinality()];
+        int count = 0;
+        for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+            // Igual que en SQL, un valor NULL no cumple ningún rango.
+            if (priceFiltered && (Double.isNaN(prices[slot]) || prices[slot] < minPrice || prices[slot] > maxPrice)) {
+                continue;
+            }
+            if (stockFiltered && (stocks[slot] == NULL_STOCK || stocks[slot] < minStock || stocks[slot] > maxStock)) {
+                continue;
+            }
+            if (dateFiltered && (createdAt[slot] == NULL_TIMESTAMP || createdAt[slot] < from || createdAt[slot] > to)) {
+                continue;
+            }
+            matches[count++] = slot;
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Selección de los k primeros con un montículo de enteros (el peor arriba),
+     * sin ordenar ni empaquetar todas las coincidencias.
+     */
+    private int[] topK(int[] matches, int k, String sortField, boolean ascending) {
+        if (k <= 0) {
+            return new int[0];
+        }
+        SlotOrder order = new SlotOrder(sortField, ascending);
+        int[] heap = new int[k];
+        int heapSize = 0;
+        for (int slot : matches) {
+            if (heapSize < k) {
+                heap[heapSize] = slot;
+                siftUp(heap, heapSize++, order);
+            } else if (order.compare(slot, heap[0]) < 0) {
+                heap[0] = slot;
+                siftDown(heap, heapSize, order);
+            }
+        }
+        int[] sorted = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            sorted[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, order);
+        }
+        return sorted;
+    }
+
+    private static void siftUp(int[] heap, int index, SlotOrder order) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (order.compare(heap[index], heap[parent]) <= 0) {
+                return;
+            }
+            swap(heap, index, parent);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int heapSize, SlotOrder order) {
+        int index = 0;
+        while (true) {
+            int largest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && order.compare(heap[left], heap[largest]) > 0) {
+                largest = left;
+            }
+            if (right < heapSize && order.compare(heap[right], heap[largest]) > 0) {
+                largest = right;
+            }
+            if (largest == index) {
+                return;
+            }
+            swap(heap, index, largest);
+            index = largest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    private void put(Product product) {
+        Integer existing = slotById.get(product.getId());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            unindex(slot);
+        } else {
+            slot = freeSlots.isEmpty() ? size++ : freeSlots.pop();
+            ensureCapacity(slot + 1);
+            slotById.put(product.getId(), slot);
+        }
+        ids[slot] = product.getId();
+        prices[slot] = product.getPrice() != null ? product.getPrice() : Double.NaN;
+        stocks[slot] = product.getStock() != null ? product.getStock() : NULL_STOCK;
+        createdAt[slot] = product.getCreatedAt() != null ? toMicros(product.getCreatedAt()) : NULL_TIMESTAMP;
+        categoryIds[slot] = product.getCategoryId() != null ? product.getCategoryId() : 0L;
+        brandIds[slot] = product.getBrandId() != null ? product.getBrandId() : 0L;
+        if (product.getCategoryId() != null) {
+            byCategory.computeIfAbsent(product.getCategoryId(), id -> new BitSet()).set(slot);
+        }
+        if (product.getBrandId() != null) {
+            byBrand.computeIfAbsent(product.getBrandId(), id -> new BitSet()).set(slot);
+        }
+        live.set(slot);
+    }
+
+    private void remove(Long productId) {
+        Integer slot = slotById.remove(productId);
+        if (slot != null) {
+            unindex(slot);
+            live.clear(slot);
+            freeSlots.push(slot);
+        }
+    }
+
+    private void unindex(int slot) {
+        BitSet category = byCategory.get(categoryIds[slot]);
+        if (category != null) {
+            category.clear(slot);
+        }
+        BitSet brand = byBrand.get(brandIds[slot]);
+        if (brand != null) {
+            brand.clear(slot);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        prices = Arrays.copyOf(prices, newCapacity);
+        stocks = Arrays.copyOf(stocks, newCapacity);
+        createdAt = Arrays.copyOf(createdAt, newCapacity);
+        categoryIds = Arrays.copyOf(categoryIds, newCapacity);
+        brandIds = Arrays.copyOf(brandIds, newCapacity);
+    }
+
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    /**
+     * Orden de dos slots según el campo pedido, con los NULL al final en ASC y
+     * al principio en DESC (como PostgreSQL) y el id como desempate.
+     */
+    private final class SlotOrder {
+        private final String sortField;
+        private final boolean ascending;
+
+        SlotOrder(String sortField, boolean ascending) {
+            this.sortField = sortField == null ? "id" : sortField;
+            this.ascending = ascending;
+        }
+
+        int compare(int a, int b) {
+            int result = switch (sortField) {
+                case "price" -> compareNullable(Double.isNaN(prices[a]), Double.isNaN(prices[b]),
+                        Double.compare(prices[a], prices[b]));
+                case "stock" -> compareNullable(stocks[a] == NULL_STOCK, stocks[b] == NULL_STOCK,
+                        Integer.compare(stocks[a], stocks[b]));
+                case "createdAt" -> compareNullable(createdAt[a] == NULL_TIMESTAMP, createdAt[b] == NULL_TIMESTAMP,
+                        Long.compare(createdAt[a], createdAt[b]));
+                default -> 0;
+            };
+            if (result == 0) {
+                result = Long.compare(ids[a], ids[b]);
+            }
+            return ascending ? result : -result;
+        }
+
+        private int compareNullable(boolean aNull, boolean bNull, int valueComparison) {
+            if (aNull || bNull) {
+                return Boolean.compare(aNull, bNull);
+            }
+            return valueComparison;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.comparathor.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Pool para las consultas en paralelo de la ficha de producto. La cola es
+     * corta: si se llena, la consulta se ejecuta en el hilo de la petición.
+     */
+    @Bean(name = "productDetailExecutor")
+    public ThreadPoolTaskExecutor productDetailExecutor(
+            @Value("${comparathor.products.detail.threads:8}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 4);
+        executor.setThreadNamePrefix("product-detail-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
@@ -40,6 +40,11 @@ public class JwtUtil {
         return extractClaims(token).getSubject();
     }
 
+    public Long extractUserId(String token) {
+        Object userId = extractClaims(token).get("userId");
+        return userId != null ? Long.valueOf(userId.toString()) : null;
+    }
+
     public List<String> extractRoles(String token) {
         return (List<String>) extractClaims(token).get("roles");
     }
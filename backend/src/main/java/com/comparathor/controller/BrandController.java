@@ -5,6 +5,7 @@ import com.comparathor.exception.ForbiddenException;
 import com.comparathor.exception.ResourceNotFoundException;
 import com.comparathor.model.Brand;
 import com.comparathor.service.BrandService;
+import com.comparathor.service.CatalogETagService;
 import com.comparathor.service.UserSecurityService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -13,6 +14,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -25,6 +27,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class BrandController {
     private final BrandService brandService;
+    private final CatalogETagService catalogETagService;
     private final UserSecurityService userSecurityService;
     private static final Logger logger = LoggerFactory.getLogger(BrandController.class);
 
@@ -59,7 +62,13 @@ public class BrandController {
             @RequestParam(name = "page", defaultValue = "0") int page,
             @RequestParam(name = "size", defaultValue = "10") int size,
             @RequestParam(name = "sortField", required = false) String sortField,
-            @RequestParam(name = "sortOrder", required = false) String sortOrder) {
+            @RequestParam(name = "sortOrder", required = false) String sortOrder,
+            WebRequest webRequest) {
+
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.REFERENCE_CACHE,
+                CatalogETagService.BRAND_TABLES)) {
+            return null;
+        }
 
         LocalDateTime startDateTime = (startDate != null) ? startDate.atStartOfDay() : null;
         LocalDateTime endDateTime = (endDate != null) ? startDate.atTime(23, 59, 59) : null;
@@ -72,7 +81,11 @@ public class BrandController {
 
 
     @GetMapping("/{id}")
-    public ResponseEntity<Brand> getBrandById(@PathVariable Long id) {
+    public ResponseEntity<Brand> getBrandById(@PathVariable Long id, WebRequest webRequest) {
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.REFERENCE_CACHE,
+                CatalogETagService.BRAND_TABLES)) {
+            return null;
+        }
         Brand brand = brandService.getBrandById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("❌ Marca con ID " + id + " no encontrada."));
         return ResponseEntity.ok(brand);
@@ -4,6 +4,7 @@ import com.comparathor.exception.BadRequestException;
 import com.comparathor.exception.ForbiddenException;
 import com.comparathor.exception.ResourceNotFoundException;
 import com.comparathor.model.Category;
+import com.comparathor.service.CatalogETagService;
 import com.comparathor.service.CategoryService;
 import com.comparathor.service.UserSecurityService;
 import lombok.RequiredArgsConstructor;
@@ -13,6 +14,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -25,6 +27,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class CategoryController {
     private final CategoryService categoryService;
+    private final CatalogETagService catalogETagService;
     private final UserSecurityService userSecurityService;
 
     private void validateAccess(String token) {
@@ -58,7 +61,13 @@ public class CategoryController {
             @RequestParam(name = "page", defaultValue = "0") int page,
             @RequestParam(name = "size", defaultValue = "10") int size,
             @RequestParam(name = "sortField", required = false) String sortField,
-            @RequestParam(name = "sortOrder", required = false) String sortOrder) {
+            @RequestParam(name = "sortOrder", required = false) String sortOrder,
+            WebRequest webRequest) {
+
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.REFERENCE_CACHE,
+                CatalogETagService.CATEGORY_TABLES)) {
+            return null;
+        }
 
         LocalDateTime startDateTime = (startDate != null) ? startDate.atStartOfDay() : null;
         LocalDateTime endDateTime = (endDate != null) ? endDate.atTime(23, 59, 59) : null;
@@ -70,7 +79,11 @@ public class CategoryController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<Category> getCategoryById(@PathVariable Long id, WebRequest webRequest) {
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.REFERENCE_CACHE,
+                CatalogETagService.CATEGORY_TABLES)) {
+            return null;
+        }
         Category category = categoryService.getCategoryById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("❌ Categoría con ID " + id + " no encontrada."));
         return ResponseEntity.ok(category);
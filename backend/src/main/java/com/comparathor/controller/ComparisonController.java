@@ -4,14 +4,18 @@ import com.comparathor.exception.BadRequestException;
 import com.comparathor.exception.ForbiddenException;
 import com.comparathor.model.Comparison;
 import com.comparathor.model.Product;
+import com.comparathor.service.CatalogETagService;
+import com.comparathor.service.ComparisonMatrixService;
 import com.comparathor.service.ComparisonService;
 import com.comparathor.service.UserSecurityService;
+import com.comparathor.utils.TotalMode;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -23,6 +27,8 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ComparisonController {
     private final ComparisonService comparisonService;
+    private final ComparisonMatrixService comparisonMatrixService;
+    private final CatalogETagService catalogETagService;
     private final UserSecurityService userSecurityService;
     private static final Logger logger = LoggerFactory.getLogger(ComparisonController.class);
 
@@ -43,19 +49,66 @@ public class ComparisonController {
             @RequestParam(name = "stock", required = false) Integer stock,
             @RequestParam(name = "brand", required = false) String brand,
             @RequestParam(name = "model", required = false) String model,
-            @RequestParam(name = "comparisonIds", required = false) List<Long> comparisonIds
+            @RequestParam(name = "comparisonIds", required = false) List<Long> comparisonIds,
+            @RequestParam(name = "totalMode", required = false) String totalMode,
+            @RequestParam(name = "fields", required = false) String fields,
+            WebRequest webRequest
     ) {
         validateAccess(token);
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.CATALOG_CACHE,
+                CatalogETagService.COMPARISON_TABLES)) {
+            return null;
+        }
         LocalDateTime startDateTime = (startDate != null) ? startDate.atStartOfDay() : null;
         LocalDateTime endDateTime = (endDate != null) ? startDate.atTime(23, 59, 59) : null;
         return comparisonService.getFilteredComparisons(
                 userId, title, startDateTime, endDateTime, page, size, sortField, sortOrder,
-                name, category, price, stock, brand, model, comparisonIds
+                name, category, price, stock, brand, model, comparisonIds,
+                TotalMode.from(totalMode, TotalMode.EXACT), fields
         );
     }
 
 
 
+    @GetMapping(params = "ids")
+    public Map<String, Object> getComparisonsByIds(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(name = "ids") List<Long> ids,
+            WebRequest webRequest) {
+        validateAccess(token);
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.CATALOG_CACHE,
+                CatalogETagService.COMPARISON_TABLES)) {
+            return null;
+        }
+        return comparisonService.getComparisonsByIds(ids);
+    }
+
+    @GetMapping("/matrix")
+    public Map<String, Object> getProductsMatrix(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(name = "productIds") List<Long> productIds,
+            WebRequest webRequest) {
+        validateAccess(token);
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.CATALOG_CACHE,
+                CatalogETagService.MATRIX_TABLES)) {
+            return null;
+        }
+        return comparisonMatrixService.getProductsMatrix(productIds);
+    }
+
+    @GetMapping("/{id}/matrix")
+    public Map<String, Object> getComparisonMatrix(
+            @RequestHeader("Authorization") String token,
+            @PathVariable Long id,
+            WebRequest webRequest) {
+        validateAccess(token);
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.CATALOG_CACHE,
+                CatalogETagService.MATRIX_TABLES)) {
+            return null;
+        }
+        return comparisonMatrixService.getComparisonMatrix(id);
+    }
+
     @PostMapping
     public ResponseEntity<Map<String, Object>> createComparison(@RequestHeader("Authorization") String token,
                                                                 @RequestBody Map<String, Object> request) {
@@ -91,11 +144,16 @@ public class ComparisonController {
 
 
     @GetMapping("/{id}")
-    public ResponseEntity<Comparison> getComparisonById(@RequestHeader("Authorization") String token, @PathVariable Long id) {
+    public ResponseEntity<Comparison> getComparisonById(@RequestHeader("Authorization") String token, @PathVariable Long id,
+                                                        WebRequest webRequest) {
         validateAccess(token);
         if (id == null || id <= 0) {
             throw new BadRequestException("ID de comparación inválido.");
         }
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.CATALOG_CACHE,
+                CatalogETagService.COMPARISON_TABLES)) {
+            return null;
+        }
         Comparison comparison = comparisonService.getComparisonById(id);
         return ResponseEntity.ok(comparison);
     }
@@ -116,8 +174,10 @@ public class ComparisonController {
 
         if (request.containsKey("productIds")) {
             try {
-                productIds = (List<Long>) request.get("productIds");
-            } catch (ClassCastException e) {
+                productIds = ((List<?>) request.get("productIds")).stream()
+                        .map(p -> Long.parseLong(p.toString()))
+                        .toList();
+            } catch (Exception e) {
                 throw new BadRequestException("❌ productIds debe ser una lista de números.");
             }
         }
@@ -141,11 +201,16 @@ public class ComparisonController {
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<Comparison>> getComparisonsByUserId(@RequestHeader("Authorization") String token,
-                                                                   @PathVariable Long userId) {
+                                                                   @PathVariable Long userId,
+                                                                   WebRequest webRequest) {
         validateAccess(token);
         if (userId == null || userId <= 0) {
             throw new BadRequestException("❌ ID de usuario inválido.");
         }
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.CATALOG_CACHE,
+                CatalogETagService.COMPARISON_TABLES)) {
+            return null;
+        }
         List<Comparison> comparisons = comparisonService.getComparisonsByUserId(userId);
         logger.info("✅ Comparaciones recuperadas para el usuario ID: {}", userId);
         return ResponseEntity.ok(comparisons);
@@ -161,8 +226,13 @@ public class ComparisonController {
     @GetMapping("/{comparisonId}/products")
     public ResponseEntity<List<Product>> getComparisonProducts(
             @RequestHeader("Authorization") String token,
-            @PathVariable Long comparisonId) {
+            @PathVariable Long comparisonId,
+            WebRequest webRequest) {
         validateAccess(token);
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.CATALOG_CACHE,
+                CatalogETagService.COMPARISON_TABLES)) {
+            return null;
+        }
         List<Product> products = comparisonService.getProductsByComparisonId(comparisonId);
         return ResponseEntity.ok(products);
     }
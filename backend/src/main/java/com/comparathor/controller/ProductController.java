@@ -3,25 +3,40 @@ package com.comparathor.controller;
 import com.comparathor.exception.BadRequestException;
 import com.comparathor.exception.ForbiddenException;
 import com.comparathor.exception.ResourceNotFoundException;
+import com.comparathor.model.Product;
+import com.comparathor.model.ProductFilter;
+import com.comparathor.service.CatalogETagService;
+import com.comparathor.service.CoOccurrenceService;
+import com.comparathor.service.ProductDetailService;
+import com.comparathor.service.ProductExportService;
+import com.comparathor.service.ProductFacetService;
 import com.comparathor.service.ProductService;
 import com.comparathor.service.UserSecurityService;
+import com.comparathor.utils.TotalMode;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -29,6 +44,11 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
+    private final ProductFacetService productFacetService;
+    private final ProductDetailService productDetailService;
+    private final ProductExportService productExportService;
+    private final CoOccurrenceService coOccurrenceService;
+    private final CatalogETagService catalogETagService;
     private final UserSecurityService userSecurityService;
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
 
@@ -86,26 +106,177 @@ public class ProductController {
             @RequestParam(name = "page", defaultValue = "0") int page,
             @RequestParam(name = "size", defaultValue = "10") int size,
             @RequestParam(name = "sortField", required = false, defaultValue = "id") String sortField,
-            @RequestParam(name = "sortOrder", required = false, defaultValue = "asc") String sortOrder) {
+            @RequestParam(name = "sortOrder", required = false, defaultValue = "asc") String sortOrder,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "totalMode", required = false) String totalMode,
+            @RequestParam(name = "fields", required = false) String fields,
+            WebRequest webRequest) {
         validateAccess(token);
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.CATALOG_CACHE,
+                CatalogETagService.PRODUCT_TABLES)) {
+            return null;
+        }
         LocalDateTime startDateTime = (startDate != null) ? startDate.atStartOfDay() : null;
         LocalDateTime endDateTime = (endDate != null) ? endDate.atTime(23, 59, 59) : null;
         try {
-            Map<String, Object> result = productService.getFilteredProducts(search,
-                    name, categoryId, brandId, minPrice, maxPrice, minStock, maxStock,
-                    startDateTime, endDateTime, page, size, sortField, sortOrder
-            );
+            Map<String, Object> result;
+            if (cursor != null) {
+                result = productService.getProductsByCursor(search,
+                        name, categoryId, brandId, minPrice, maxPrice, minStock, maxStock,
+                        startDateTime, endDateTime, cursor, size, sortField, sortOrder,
+                        TotalMode.from(totalMode, TotalMode.NONE), fields
+                );
+            } else {
+                result = productService.getFilteredProducts(search,
+                        name, categoryId, brandId, minPrice, maxPrice, minStock, maxStock,
+                        startDateTime, endDateTime, page, size, sortField, sortOrder,
+                        TotalMode.from(totalMode, TotalMode.EXACT), fields
+                );
+            }
             if (result == null || result.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NO_CONTENT).body(Collections.emptyMap());
             } else {
                 return ResponseEntity.ok(result);
             }
+        } catch (BadRequestException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Collections.singletonMap("error", "Ocurrió un error al obtener los productos."));
         }
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<Map<String, Object>> getProductsByIds(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(name = "ids") List<Long> ids,
+            WebRequest webRequest) {
+        validateAccess(token);
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.CATALOG_CACHE,
+                CatalogETagService.PRODUCT_TABLES)) {
+            return null;
+        }
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> getProductsByIdsBatch(
+            @RequestHeader("Authorization") String token,
+            @RequestBody Map<String, Object> request) {
+        validateAccess(token);
+        if (!(request.get("ids") instanceof List<?> rawIds)) {
+            throw new BadRequestException("Se requiere una lista de ids.");
+        }
+        List<Long> ids = new ArrayList<>(rawIds.size());
+        try {
+            for (Object rawId : rawIds) {
+                ids.add(Long.valueOf(rawId.toString()));
+            }
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new BadRequestException("Los ids deben ser numéricos.");
+        }
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Product> getProductById(
+            @RequestHeader("Authorization") String token,
+            @PathVariable Long id,
+            WebRequest webRequest) {
+        validateAccess(token);
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.CATALOG_CACHE,
+                CatalogETagService.PRODUCT_TABLES)) {
+            return null;
+        }
+        return ResponseEntity.ok(productService.getProductById(id));
+    }
+
+    @GetMapping("/top-rated")
+    public ResponseEntity<Map<String, Object>> getTopRatedProducts(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(name = "categoryId", required = false) Long categoryId,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        validateAccess(token);
+        return ResponseEntity.ok(productService.getTopRatedProducts(categoryId, limit));
+    }
+
+    @GetMapping("/{id}/compared-with")
+    public ResponseEntity<Map<String, Object>> getComparedWith(
+            @RequestHeader("Authorization") String token,
+            @PathVariable Long id,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        validateAccess(token);
+        return ResponseEntity.ok(coOccurrenceService.getComparedWith(id, limit));
+    }
+
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<Map<String, Object>> getProductDetail(
+            @RequestHeader("Authorization") String token,
+            @PathVariable Long id,
+            @RequestParam(name = "reviews", defaultValue = "5") int reviews) {
+        validateAccess(token);
+        return ResponseEntity.ok(productDetailService.getProductDetail(id, reviews));
+    }
+
+    @GetMapping("/export")
+    public void exportProducts(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(name = "format", defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        validateAccess(token);
+        ProductExportService.Format exportFormat = ProductExportService.Format.from(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"products." + exportFormat.getExtension() + "\"");
+        productExportService.exportProducts(exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> getProductFacets(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(name = "search", required = false) String search,
+            @RequestParam(name = "categoryId", required = false) Long categoryId,
+            @RequestParam(name = "brandId", required = false) Long brandId,
+            @RequestParam(name = "minPrice", required = false) Double minPrice,
+            @RequestParam(name = "maxPrice", required = false) Double maxPrice,
+            @RequestParam(name = "minStock", required = false) Integer minStock,
+            @RequestParam(name = "maxStock", required = false) Integer maxStock,
+            @RequestParam(name = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest webRequest) {
+        validateAccess(token);
+        if (catalogETagService.checkNotModified(webRequest, CatalogETagService.CATALOG_CACHE,
+                CatalogETagService.PRODUCT_TABLES)) {
+            return null;
+        }
+        LocalDateTime startDateTime = (startDate != null) ? startDate.atStartOfDay() : null;
+        LocalDateTime endDateTime = (endDate != null) ? endDate.atTime(23, 59, 59) : null;
+        ProductFilter filter = ProductFilter.of(search, categoryId, brandId, minPrice, maxPrice,
+                minStock, maxStock, startDateTime, endDateTime);
+        return ResponseEntity.ok(productFacetService.getFacets(filter));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchProducts(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "fuzzy", defaultValue = "false") boolean fuzzy,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "10") int size) {
+        validateAccess(token);
+        return ResponseEntity.ok(productService.searchProducts(query, fuzzy, page, size));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Map<String, Object>> suggestProducts(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(name = "prefix") String prefix,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        validateAccess(token);
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
     @PutMapping(value = "/{id}", consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
     public ResponseEntity<Map<String, Object>> updateProduct(
             @RequestHeader("Authorization") String token,
@@ -4,7 +4,9 @@ import com.comparathor.exception.BadRequestException;
 import com.comparathor.exception.ForbiddenException;
 import com.comparathor.model.Rating;
 import com.comparathor.service.RatingService;
+import com.comparathor.service.RatingTrendService;
 import com.comparathor.service.UserSecurityService;
+import com.comparathor.utils.TotalMode;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +24,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class RatingController {
     private final RatingService ratingService;
+    private final RatingTrendService ratingTrendService;
     private final UserSecurityService userSecurityService;
     private static final Logger logger = LoggerFactory.getLogger(RatingController.class);
 
@@ -36,14 +39,24 @@ public class RatingController {
             @RequestParam(name = "page", defaultValue = "0") int page,
             @RequestParam(name = "size", defaultValue = "10") int size,
             @RequestParam(name = "sortField", required = false) String sortField,
-            @RequestParam(name = "sortOrder", required = false) String sortOrder) {
+            @RequestParam(name = "sortOrder", required = false) String sortOrder,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "totalMode", required = false) String totalMode,
+            @RequestParam(name = "fields", required = false) String fields) {
 
         validateAccess(token);
         LocalDateTime startDateTime = (startDate != null) ? startDate.atStartOfDay() : null;
         LocalDateTime endDateTime = (endDate != null) ? endDate.atTime(23, 59, 59) : null;
         logger.info("Obteniendo ratings con filtros - productId: {}, userId: {}, minRating: {}, startDate: {}, endDate: {}, page: {}, size: {}, sortField: {}, sortOrder: {}",
                 productId, userId, minRating, startDateTime, endDateTime, page, size, sortField, sortOrder);
-        Map<String, Object> response = ratingService.getFilteredRatings(productId, userId, minRating, startDateTime, endDateTime, page, size, sortField, sortOrder);
+        Map<String, Object> response;
+        if (cursor != null) {
+            response = ratingService.getRatingsByCursor(productId, userId, minRating, startDateTime, endDateTime,
+                    cursor, size, sortField, sortOrder, TotalMode.from(totalMode, TotalMode.NONE), fields);
+        } else {
+            response = ratingService.getFilteredRatings(productId, userId, minRating, startDateTime, endDateTime, page, size, sortField, sortOrder,
+                    TotalMode.from(totalMode, TotalMode.EXACT), fields);
+        }
         logger.info("Total de ratings encontrados: {}", response.get("total"));
         return response;
     }
@@ -69,6 +82,36 @@ public class RatingController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Valoraciones del usuario autenticado para los productos indicados, en
+     * una sola consulta (p. ej. para las tarjetas de un listado).
+     */
+    @GetMapping("/me")
+    public ResponseEntity<Map<String, Object>> getMyRatingsForProducts(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(name = "productIds") List<Long> productIds) {
+        validateAccess(token);
+        Long userId = userSecurityService.getUserIdFromToken(token);
+        return ResponseEntity.ok(ratingService.getUserRatingsForProducts(userId, productIds));
+    }
+
+    /**
+     * Serie diaria de nº y media de valoraciones de un producto, marca o
+     * categoría (scope=product|brand|category), por defecto del último año.
+     */
+    @GetMapping("/trends")
+    public ResponseEntity<Map<String, Object>> getRatingTrends(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(name = "scope", defaultValue = "product") String scope,
+            @RequestParam(name = "id") Long id,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (!userSecurityService.hasRole(token, "ROLE_ADMIN")) {
+            throw new ForbiddenException("🚫 Acceso denegado. Se requiere el rol: ROLE_ADMIN");
+        }
+        return ResponseEntity.ok(ratingTrendService.getDailyTrend(scope, id, from, to));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Rating> getRatingById(@PathVariable Long id) {
         Rating rating = ratingService.getRatingById(id);
@@ -99,11 +142,13 @@ public class RatingController {
     }
 
     @GetMapping("/product/{productId}")
-    public ResponseEntity<List<Rating>> getRatingsByProductId(@RequestHeader("Authorization") String token,
-                                                              @PathVariable Long productId) {
+    public ResponseEntity<Map<String, Object>> getRatingsByProductId(@RequestHeader("Authorization") String token,
+                                                                     @PathVariable Long productId,
+                                                                     @RequestParam(name = "cursor", required = false) String cursor,
+                                                                     @RequestParam(name = "size", defaultValue = "20") int size,
+                                                                     @RequestParam(name = "sortOrder", required = false) String sortOrder) {
         validateAccess(token);
-        List<Rating> ratings = ratingService.getRatingsByProductId(productId);
-        System.out.println("✅ Ratings recuperados para el producto ID:" + productId);
+        Map<String, Object> ratings = ratingService.getRatingsByProductId(productId, cursor, size, sortOrder);
         return ResponseEntity.ok(ratings);
     }
 
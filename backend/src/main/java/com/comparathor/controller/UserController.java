@@ -3,6 +3,7 @@ package com.comparathor.controller;
 import com.comparathor.exception.BadRequestException;
 import com.comparathor.exception.ForbiddenException;
 import com.comparathor.service.UserSecurityService;
+import com.comparathor.utils.TotalMode;
 import com.comparathor.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -31,11 +32,13 @@ public class UserController {
             @RequestParam(name = "page", defaultValue = "0") int page,
             @RequestParam(name = "size", defaultValue = "10") int size,
             @RequestParam(name = "sortField", required = false) String sortField,
-            @RequestParam(name = "sortOrder", required = false) String sortOrder) {
+            @RequestParam(name = "sortOrder", required = false) String sortOrder,
+            @RequestParam(name = "totalMode", required = false) String totalMode) {
         validateAccess(token);
         LocalDateTime startDateTime = (startDate != null) ? startDate.atStartOfDay() : null;
         LocalDateTime endDateTime = (endDate != null) ? endDate.atTime(23, 59, 59) : null;
-        return userService.getFilteredUsers(search,roleId, searchTerm, startDateTime, endDateTime, page, size, sortField, sortOrder);
+        return userService.getFilteredUsers(search,roleId, searchTerm, startDateTime, endDateTime, page, size, sortField, sortOrder,
+                TotalMode.from(totalMode, TotalMode.EXACT));
     }
 
     @PostMapping
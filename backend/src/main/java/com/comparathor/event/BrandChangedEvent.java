@@ -0,0 +1,35 @@
+package com.comparathor.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Se publica desde BrandService al crear, editar o borrar una marca. Los
+ * productos guardan solo el id, pero las cachés y el índice de búsqueda copian
+ * su nombre.
+ *
+ * <p>En el borrado lleva además los productos que tenía, leídos antes de
+ * borrarla: después ya no se pueden localizar por su id.
+ */
+@Getter
+@ToString
+public class BrandChangedEvent {
+
+    public enum Type {CREATED, UPDATED, DELETED}
+
+    private final Type type;
+    private final Long brandId;
+    private final List<Long> productIds;
+
+    public BrandChangedEvent(Type type, Long brandId) {
+        this(type, brandId, List.of());
+    }
+
+    public BrandChangedEvent(Type type, Long brandId, List<Long> productIds) {
+        this.type = type;
+        this.brandId = brandId;
+        this.productIds = productIds;
+    }
+}
@@ -0,0 +1,35 @@
+package com.comparathor.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Se publica desde CategoryService al crear, editar o borrar una categoría.
+ * Los productos guardan solo el id, pero las cachés y el índice de búsqueda
+ * copian su nombre.
+ *
+ * <p>En el borrado lleva además los productos que tenía, leídos antes de
+ * borrarla: después ya no se pueden localizar por su id.
+ */
+@Getter
+@ToString
+public class CategoryChangedEvent {
+
+    public enum Type {CREATED, UPDATED, DELETED}
+
+    private final Type type;
+    private final Long categoryId;
+    private final List<Long> productIds;
+
+    public CategoryChangedEvent(Type type, Long categoryId) {
+        this(type, categoryId, List.of());
+    }
+
+    public CategoryChangedEvent(Type type, Long categoryId, List<Long> productIds) {
+        this.type = type;
+        this.categoryId = categoryId;
+        this.productIds = productIds;
+    }
+}
@@ -0,0 +1,23 @@
+package com.comparathor.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Se publica desde ComparisonService al crear, editar o borrar una
+ * comparación.
+ */
+@Getter
+@ToString
+public class ComparisonChangedEvent {
+
+    public enum Type {CREATED, UPDATED, DELETED}
+
+    private final Type type;
+    private final Long comparisonId;
+
+    public ComparisonChangedEvent(Type type, Long comparisonId) {
+        this.type = type;
+        this.comparisonId = comparisonId;
+    }
+}
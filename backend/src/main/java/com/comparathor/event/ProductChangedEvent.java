@@ -0,0 +1,75 @@
+package com.comparathor.event;
+
+import com.comparathor.model.Product;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Se publica desde ProductService cuando cambia el catálogo. Las categorías y
+ * marcas incluyen los valores anteriores de un producto actualizado, para que
+ * los oyentes puedan invalidar ambos ámbitos.
+ */
+@Getter
+@ToString
+public class ProductChangedEvent {
+
+    public enum Type {CREATED, UPDATED, DELETED}
+
+    private final Type type;
+    private final List<Product> products;
+    private final Set<Long> categoryIds = new HashSet<>();
+    private final Set<Long> brandIds = new HashSet<>();
+
+    private ProductChangedEvent(Type type, List<Product> products) {
+        this.type = type;
+        this.products = products;
+        for (Product product : products) {
+            addScope(product.getCategoryId(), product.getBrandId());
+        }
+    }
+
+    public static ProductChangedEvent created(List<Product> products) {
+        return new ProductChangedEvent(Type.CREATED, products);
+    }
+
+    public static ProductChangedEvent updated(List<Product> products) {
+        return new ProductChangedEvent(Type.UPDATED, products);
+    }
+
+    public static ProductChangedEvent updated(Product product, Long previousCategoryId, Long previousBrandId) {
+        ProductChangedEvent event = new ProductChangedEvent(Type.UPDATED, List.of(product));
+        event.addScope(previousCategoryId, previousBrandId);
+        return event;
+    }
+
+    public static ProductChangedEvent deleted(Product product) {
+        return new ProductChangedEvent(Type.DELETED, List.of(product));
+    }
+
+    public List<Long> getProductIds() {
+        return products.stream().map(Product::getId).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Indica si el cambio puede alterar los resultados de un filtro por
+     * categoría y marca (null = sin filtrar por ese campo).
+     */
+    public boolean affects(Long categoryId, Long brandId) {
+        return (categoryId == null || categoryIds.contains(categoryId))
+                && (brandId == null || brandIds.contains(brandId));
+    }
+
+    private void addScope(Long categoryId, Long brandId) {
+        if (categoryId != null) {
+            categoryIds.add(categoryId);
+        }
+        if (brandId != null) {
+            brandIds.add(brandId);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.comparathor.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Se publica desde RatingService al crear, editar o borrar una valoración,
+ * con el producto al que pertenece.
+ */
+@Getter
+@ToString
+public class RatingChangedEvent {
+
+    public enum Type {CREATED, UPDATED, DELETED}
+
+    private final Type type;
+    private final Long ratingId;
+    private final Long productId;
+
+    public RatingChangedEvent(Type type, Long ratingId, Long productId) {
+        this.type = type;
+        this.ratingId = ratingId;
+        this.productId = productId;
+    }
+}
@@ -0,0 +1,23 @@
+package com.comparathor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Agregado por marca de un tramo de ratings; lastRatingId es el mayor id del
+ * tramo y sirve de cursor para el siguiente.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class BrandRatingChunk {
+    private Long brandId;
+    private Integer ratingCount;
+    private Double ratingSum;
+    private Long lastRatingId;
+}
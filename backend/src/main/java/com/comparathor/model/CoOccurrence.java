@@ -0,0 +1,17 @@
+package com.comparathor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class CoOccurrence {
+    private Long otherProductId;
+    private Integer pairCount;
+}
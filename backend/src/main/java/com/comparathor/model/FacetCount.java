@@ -0,0 +1,15 @@
+package com.comparathor.model;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class FacetCount {
+    private String facet;
+    private Long value;
+    private String name;
+    private Integer count;
+}
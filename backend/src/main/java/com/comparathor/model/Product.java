@@ -21,6 +21,8 @@ public class Product {
     private String model;
     private String imageUrl;
     private String createdBy;
+    private Integer ratingCount;
+    private Double ratingAverage;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
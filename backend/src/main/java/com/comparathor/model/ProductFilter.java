@@ -0,0 +1,31 @@
+package com.comparathor.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Filtros de ProductFilterConditions normalizados, para usarlos como clave de
+ * caché: dos peticiones que filtran lo mismo producen filtros iguales.
+ */
+@Value
+public class ProductFilter {
+    String search;
+    Long categoryId;
+    Long brandId;
+    Double minPrice;
+    Double maxPrice;
+    Integer minStock;
+    Integer maxStock;
+    LocalDateTime startDate;
+    LocalDateTime endDate;
+
+    public static ProductFilter of(String search, Long categoryId, Long brandId,
+                                   Double minPrice, Double maxPrice, Integer minStock, Integer maxStock,
+                                   LocalDateTime startDate, LocalDateTime endDate) {
+        String normalizedSearch = (search == null || search.isBlank()) ? null : search.trim().toLowerCase(Locale.ROOT);
+        return new ProductFilter(normalizedSearch, categoryId, brandId, minPrice, maxPrice,
+                minStock, maxStock, startDate, endDate);
+    }
+}
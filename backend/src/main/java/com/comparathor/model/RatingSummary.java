@@ -0,0 +1,24 @@
+package com.comparathor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class RatingSummary {
+    private Long productId;
+    private Integer count;
+    private Double sum;
+    private Double average;
+    private Integer star1;
+    private Integer star2;
+    private Integer star3;
+    private Integer star4;
+    private Integer star5;
+}
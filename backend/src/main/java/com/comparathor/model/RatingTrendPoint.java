@@ -0,0 +1,21 @@
+package com.comparathor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class RatingTrendPoint {
+    private LocalDate day;
+    private Integer count;
+    private Double sum;
+    private Double average;
+}
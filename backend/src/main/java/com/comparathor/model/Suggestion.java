@@ -0,0 +1,16 @@
+package com.comparathor.model;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class Suggestion {
+    private String type;
+    private Long id;
+    private String text;
+    private String detail;
+    private Integer popularity;
+}
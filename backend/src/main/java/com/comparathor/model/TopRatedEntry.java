@@ -0,0 +1,19 @@
+package com.comparathor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class TopRatedEntry {
+    private Long productId;
+    private Long categoryId;
+    private Integer ratingCount;
+    private Double ratingSum;
+}
@@ -10,7 +10,9 @@ import java.util.Optional;
 
 @Mapper
 public interface BrandRepository {
-    Brand save(Brand brand);
+    void save(Brand brand);
+
+    void updateBrand(Brand brand);
 
     List<Brand> findAll();
 
@@ -24,6 +26,8 @@ public interface BrandRepository {
 
     Long findIdByName(@Param("name") String name);
 
+    List<Long> updateReliabilities(@Param("brandIds") Long[] brandIds, @Param("reliabilities") Integer[] reliabilities);
+
     List<Brand> findFilteredBrands(
             @Param("reliability") Integer reliability,
             @Param("isActive") Boolean isActive,
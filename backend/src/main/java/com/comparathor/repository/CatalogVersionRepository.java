@@ -0,0 +1,11 @@
+package com.comparathor.repository;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface CatalogVersionRepository {
+    long sumVersions(@Param("tables") String[] tables);
+
+    long bump(@Param("table") String table);
+}
@@ -10,7 +10,9 @@ import java.util.Optional;
 
 @Mapper
 public interface CategoryRepository {
-    Category save(Category category);
+    void save(Category category);
+
+    void updateCategory(Category category);
 
     List<Category> findAll();
 
@@ -0,0 +1,18 @@
+package com.comparathor.repository;
+
+import com.comparathor.model.CoOccurrence;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface CoOccurrenceRepository {
+    void applyPairDelta(@Param("productIds") Long[] productIds,
+                        @Param("changedIds") Long[] changedIds,
+                        @Param("delta") int delta);
+
+    int deleteEmptyPairs(@Param("productIds") Long[] productIds);
+
+    List<CoOccurrence> findTopByProductId(@Param("productId") Long productId, @Param("limit") int limit);
+}
@@ -5,12 +5,18 @@ import com.comparathor.model.Product;
 import org.apache.ibatis.annotations.*;
 
 import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface ComparisonProductRepository {
     void insertMultipleComparisonProducts(@Param("comparisonId") Long comparisonId, @Param("productIds") List<Long> productIds);
     ComparisonProduct findById(@Param("id") Long id);
     void deleteByComparisonId(@Param("comparisonId") Long comparisonId);
+    void applyProductDiff(@Param("comparisonId") Long comparisonId,
+                          @Param("addedIds") Long[] addedIds,
+                          @Param("removedIds") Long[] removedIds);
     List<Long> findProductIdsByComparisonId(@Param("comparisonId") Long comparisonId);
     List<Product> findProductsByComparisonId(@Param("comparisonId") Long comparisonId);
+    List<ComparisonProduct> findByComparisonIds(@Param("comparisonIds") Long[] comparisonIds);
+    List<Map<String, Object>> findProductsByComparisonIds(@Param("comparisonIds") Long[] comparisonIds);
 }
@@ -4,12 +4,15 @@ import com.comparathor.model.Comparison;
 import org.apache.ibatis.annotations.*;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @Mapper
 public interface ComparisonRepository {
 
     Comparison findById(@Param("id") Long id);
 
+    List<Comparison> findByIds(@Param("ids") Long[] ids);
+
     void save(Comparison comparison);
 
     void updateComparison(
@@ -39,7 +42,8 @@ public interface ComparisonRepository {
             @Param("size") int size,
             @Param("offset") int offset,
             @Param("sortField") String sortField,
-            @Param("sortOrder") String sortOrder
+            @Param("sortOrder") String sortOrder,
+            @Param("fields") Set<String> fields
     );
 
     int countFilteredComparisons(
@@ -56,5 +60,21 @@ public interface ComparisonRepository {
             @Param("comparisonIds") List<Long> comparisonIds // 🔥 AÑADIDO AQUÍ
     );
 
+    String estimateFilteredComparisons(
+            @Param("userId") Long userId,
+            @Param("title") String title,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("name") String name,
+            @Param("category") String category,
+            @Param("price") Double price,
+            @Param("stock") Integer stock,
+            @Param("brand") String brand,
+            @Param("model") String model,
+            @Param("comparisonIds") List<Long> comparisonIds
+    );
+
     int existsById(@Param("id") Long id);
+
+    Long lockById(@Param("id") Long id);
 }
@@ -1,17 +1,35 @@
 package com.comparathor.repository;
 
+import com.comparathor.model.FacetCount;
 import com.comparathor.model.Product;
+import com.comparathor.model.ProductFilter;
+import com.comparathor.model.Suggestion;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Mapper
 public interface ProductRepository {
     Product findById(@Param("id") Long id);
 
+    List<Product> findByIds(@Param("ids") Long[] ids);
+
+    List<Product> findByBrandOrCategory(@Param("brandId") Long brandId, @Param("categoryId") Long categoryId);
+
+    List<Long> findIdsByBrandOrCategory(@Param("brandId") Long brandId, @Param("categoryId") Long categoryId);
+
+    void streamAllProducts(ResultHandler<Product> handler);
+
+    Cursor<Product> exportProducts();
+
+    void streamSuggestionSources(ResultHandler<Suggestion> handler);
+
     List<Product> findFilteredProducts(
             @Param("search") String search,
             @Param("name") String name,
@@ -26,7 +44,27 @@ public interface ProductRepository {
             @Param("size") int size,
             @Param("offset") int offset,
             @Param("sortField") String sortField,
-            @Param("sortOrder") String sortOrder
+            @Param("sortOrder") String sortOrder,
+            @Param("fields") Set<String> fields
+    );
+
+    List<Product> findFilteredProductsAfter(
+            @Param("search") String search,
+            @Param("name") String name,
+            @Param("categoryId") Long categoryId,
+            @Param("brandId") Long brandId,
+            @Param("minPrice") Double minPrice,
+            @Param("maxPrice") Double maxPrice,
+            @Param("minStock") Integer minStock,
+            @Param("maxStock") Integer maxStock,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("afterValue") Object afterValue,
+            @Param("afterId") Long afterId,
+            @Param("limit") int limit,
+            @Param("sortField") String sortField,
+            @Param("sortOrder") String sortOrder,
+            @Param("fields") Set<String> fields
     );
 
     int countFilteredProducts(
@@ -42,6 +80,21 @@ public interface ProductRepository {
             @Param("endDate") LocalDateTime endDate
     );
 
+    String estimateFilteredProducts(
+            @Param("search") String search,
+            @Param("name") String name,
+            @Param("categoryId") Long categoryId,
+            @Param("brandId") Long brandId,
+            @Param("minPrice") Double minPrice,
+            @Param("maxPrice") Double maxPrice,
+            @Param("minStock") Integer minStock,
+            @Param("maxStock") Integer maxStock,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    List<FacetCount> findFacetCounts(ProductFilter filter);
+
     void save(Product product);
 
     boolean existsByName(@Param("name") String name);
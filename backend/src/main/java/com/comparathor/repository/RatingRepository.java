@@ -1,24 +1,32 @@
 package com.comparathor.repository;
 
+import com.comparathor.model.BrandRatingChunk;
 import com.comparathor.model.Rating;
+import com.comparathor.model.RatingSummary;
+import com.comparathor.model.TopRatedEntry;
 import org.apache.ibatis.annotations.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @Mapper
 public interface RatingRepository {
 
-    void save(Rating rating);
+    int save(Rating rating);
 
-    Rating findById(@Param("id") Long id);
+    Rating findByUserAndProductForUpdate(@Param("userId") Long userId, @Param("productId") Long productId);
+
+    List<Rating> findByUserAndProducts(@Param("userId") Long userId, @Param("productIds") Long[] productIds);
 
-    List<Rating> findByProductId(@Param("productId") Long productId);
+    Rating findById(@Param("id") Long id);
 
     int existsById(@Param("id") Long id);
 
     void deleteById(@Param("id") Long id);
 
+    List<Rating> deleteByUserId(@Param("userId") Long userId);
+
     void updateRating(@Param("id") Long id,
                       @Param("rating") Double rating,
                       @Param("comment") String comment,
@@ -33,7 +41,19 @@ public interface RatingRepository {
                                      @Param("size") int size,
                                      @Param("offset") int offset,
                                      @Param("sortField") String sortField,
-                                     @Param("sortOrder") String sortOrder);
+                                     @Param("sortOrder") String sortOrder,
+                                     @Param("fields") Set<String> fields);
+
+    List<Rating> findFilteredRatingsAfter(@Param("productId") Long productId,
+                                          @Param("userId") Long userId,
+                                          @Param("minRating") Double minRating,
+                                          @Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate,
+                                          @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                          @Param("afterId") Long afterId,
+                                          @Param("limit") int limit,
+                                          @Param("sortOrder") String sortOrder,
+                                          @Param("fields") Set<String> fields);
 
     // 🔢 Contar ratings filtrados con minRating
     int countFilteredRatings(@Param("productId") Long productId,
@@ -42,5 +62,37 @@ public interface RatingRepository {
                              @Param("startDate") LocalDateTime startDate,
                              @Param("endDate") LocalDateTime endDate);
 
+    String estimateFilteredRatings(@Param("productId") Long productId,
+                                   @Param("userId") Long userId,
+                                   @Param("minRating") Double minRating,
+                                   @Param("startDate") LocalDateTime startDate,
+                                   @Param("endDate") LocalDateTime endDate);
+
     List<Rating> findUserRatingForProduct(@Param("productId") Long productId, @Param("userId") Long userId);
+
+    RatingSummary findSummaryByProductId(@Param("productId") Long productId);
+
+    void applySummaryDelta(RatingSummary delta);
+
+    double findGlobalRatingMean();
+
+    List<TopRatedEntry> findTopRatedCandidates(@Param("globalMean") double globalMean,
+                                               @Param("priorWeight") double priorWeight,
+                                               @Param("categoryId") Long categoryId,
+                                               @Param("perCategory") boolean perCategory,
+                                               @Param("capacity") int capacity);
+
+    List<TopRatedEntry> findTopRatedEntries(@Param("productIds") Long[] productIds);
+
+    void lockRatingSummaries();
+
+    void deleteAllRatingSummaries();
+
+    int rebuildRatingSummaries();
+
+    long findMaxRatingId();
+
+    List<BrandRatingChunk> findBrandRatingChunk(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    List<Rating> findLatestByProductId(@Param("productId") Long productId, @Param("limit") int limit);
 }
@@ -0,0 +1,29 @@
+package com.comparathor.repository;
+
+import com.comparathor.model.RatingTrendPoint;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Mapper
+public interface RatingRollupRepository {
+    void appendDelta(@Param("productId") Long productId,
+                     @Param("day") LocalDate day,
+                     @Param("countDelta") int countDelta,
+                     @Param("sumDelta") double sumDelta);
+
+    int compactDeltas();
+
+    void lockRollups();
+
+    void deleteAllRollups();
+
+    int rebuildRollups();
+
+    List<RatingTrendPoint> findDailyTrend(@Param("scope") String scope,
+                                          @Param("id") Long id,
+                                          @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to);
+}
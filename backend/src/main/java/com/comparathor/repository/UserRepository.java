@@ -33,4 +33,12 @@ public interface UserRepository {
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate
     );
+
+    String estimateFilteredUsers(
+            @Param("search") String search,
+            @Param("roleId") Long roleId,
+            @Param("searchTerm") String searchTerm,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
 }
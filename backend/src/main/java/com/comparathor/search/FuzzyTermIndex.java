@@ -0,0 +1,145 @@
+package com.comparathor.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Vocabulario de nombres y modelos indexado por trigramas. Para una palabra
+ * desconocida reúne los términos que comparten trigramas con ella y solo
+ * calcula la distancia de edición sobre esos candidatos.
+ *
+ * No es thread-safe: ProductSearchIndex lo protege con su lock.
+ */
+class FuzzyTermIndex {
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final double MIN_SHARED_GRAMS_RATIO = 0.3;
+
+    private final Map<String, Integer> termCounts = new HashMap<>();
+    private final Map<String, Set<String>> termsByGram = new HashMap<>();
+
+    void add(String term) {
+        if (termCounts.merge(term, 1, Integer::sum) == 1) {
+            for (String gram : grams(term)) {
+                termsByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+            }
+        }
+    }
+
+    void remove(String term) {
+        Integer count = termCounts.get(term);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            termCounts.put(term, count - 1);
+            return;
+        }
+        termCounts.remove(term);
+        for (String gram : grams(term)) {
+            Set<String> terms = termsByGram.get(gram);
+            if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                termsByGram.remove(gram);
+            }
+        }
+    }
+
+    void clear() {
+        termCounts.clear();
+        termsByGram.clear();
+    }
+
+    boolean contains(String term) {
+        return termCounts.containsKey(term);
+    }
+
+    /**
+     * Términos del vocabulario a distancia de edición acotada (1 para palabras
+     * de hasta 4 letras, 2 para el resto), del más cercano y frecuente al menos.
+     */
+    List<String> closest(String word, int max) {
+        if (word.length() < MIN_FUZZY_LENGTH) {
+            return List.of();
+        }
+        int maxDistance = word.length() <= 4 ? 1 : 2;
+        Set<String> queryGrams = grams(word);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            Set<String> terms = termsByGram.get(gram);
+            if (terms != null) {
+                for (String term : terms) {
+                    shared.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+
+        // Una sola edición en una palabra corta puede dejar un único trigrama en común
+        int minShared = maxDistance == 1 ? 1 : (int) Math.ceil(queryGrams.size() * MIN_SHARED_GRAMS_RATIO);
+        List<Candidate> candidates = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            String term = entry.getKey();
+            if (entry.getValue() < minShared || Math.abs(term.length() - word.length()) > maxDistance) {
+                continue;
+            }
+            int distance = boundedDistance(word, term, maxDistance);
+            if (distance <= maxDistance) {
+                candidates.add(new Candidate(term, distance, termCounts.get(term)));
+            }
+        }
+        candidates.sort(Comparator.comparingInt(Candidate::distance)
+                .thenComparing(Comparator.comparingInt(Candidate::count).reversed())
+                .thenComparing(Candidate::term));
+        return candidates.stream().limit(max).map(Candidate::term).toList();
+    }
+
+    private static Set<String> grams(String term) {
+        String padded = "$" + term + "$";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Distancia Damerau-Levenshtein (alineamiento óptimo) que abandona en
+     * cuanto toda la fila supera el máximo; devuelve max + 1 en ese caso.
+     */
+    static int boundedDistance(String a, String b, int max) {
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    private record Candidate(String term, int distance, int count) {
+    }
+}
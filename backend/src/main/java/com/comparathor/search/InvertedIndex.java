@@ -0,0 +1,233 @@
+package com.comparathor.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Índice invertido en memoria con ranking BM25 sobre frecuencias ya ponderadas
+ * por campo. Cada documento recibe un ordinal creciente, así que las listas de
+ * postings quedan ordenadas y se recorren documento a documento. Los borrados
+ * solo marcan el ordinal; compactIfNeeded() purga los huecos cuando se acumulan.
+ *
+ * No es thread-safe: ProductSearchIndex serializa las escrituras.
+ */
+class InvertedIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MIN_DEAD_FOR_COMPACTION = 1024;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private long[] ids = new long[1024];
+    private float[] lengths = new float[1024];
+    private PostingList[][] docPostings = new PostingList[1024][];
+    private int size;
+    private int liveCount;
+    private double totalLength;
+
+    void put(long id, Map<String, Float> weightedFrequencies, float length) {
+        remove(id);
+        ensureCapacity(size + 1);
+        int ordinal = size++;
+        ids[ordinal] = id;
+        lengths[ordinal] = length;
+        PostingList[] lists = new PostingList[weightedFrequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Float> entry : weightedFrequencies.entrySet()) {
+            PostingList list = postings.computeIfAbsent(entry.getKey(), PostingList::new);
+            list.add(ordinal, entry.getValue());
+            lists[i++] = list;
+        }
+        docPostings[ordinal] = lists;
+        live.set(ordinal);
+        ordinalById.put(id, ordinal);
+        liveCount++;
+        totalLength += length;
+    }
+
+    boolean remove(long id) {
+        Integer ordinal = ordinalById.remove(id);
+        if (ordinal == null) {
+            return false;
+        }
+        live.clear(ordinal);
+        liveCount--;
+        totalLength -= lengths[ordinal];
+        for (PostingList list : docPostings[ordinal]) {
+            if (--list.documentFrequency == 0) {
+                postings.remove(list.term, list);
+            }
+        }
+        docPostings[ordinal] = null;
+        return true;
+    }
+
+    void clear() {
+        postings.clear();
+        ordinalById.clear();
+        live.clear();
+        Arrays.fill(docPostings, 0, size, null);
+        size = 0;
+        liveCount = 0;
+        totalLength = 0;
+    }
+
+    int liveCount() {
+        return liveCount;
+    }
+
+    boolean containsTerm(String term) {
+        return postings.containsKey(term);
+    }
+
+    SearchResult search(List<String> queryTerms, int limit) {
+        List<PostingList> lists = new ArrayList<>();
+        List<Float> idfs = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(queryTerms)) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                lists.add(list);
+                idfs.add(idf(list.documentFrequency));
+            }
+        }
+        if (lists.isEmpty() || limit <= 0) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        float averageLength = liveCount == 0 ? 1f : (float) (totalLength / liveCount);
+        int[] positions = new int[lists.size()];
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(limit + 1,
+                (a, b) -> Float.compare(a.score(), b.score()));
+        int matched = 0;
+
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (int i = 0; i < lists.size(); i++) {
+                PostingList list = lists.get(i);
+                if (positions[i] < list.size) {
+                    doc = Math.min(doc, list.docs[positions[i]]);
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+            boolean alive = live.get(doc);
+            float score = 0f;
+            for (int i = 0; i < lists.size(); i++) {
+                PostingList list = lists.get(i);
+                if (positions[i] < list.size && list.docs[positions[i]] == doc) {
+                    if (alive) {
+                        float tf = list.frequencies[positions[i]];
+                        float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                        score += idfs.get(i) * tf * (K1 + 1) / (tf + norm);
+                    }
+                    positions[i]++;
+                }
+            }
+            if (!alive) {
+                continue;
+            }
+            matched++;
+            if (top.size() < limit) {
+                top.add(new SearchHit(ids[doc], score));
+            } else if (score > top.peek().score()) {
+                top.poll();
+                top.add(new SearchHit(ids[doc], score));
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(top);
+        hits.sort((a, b) -> Float.compare(b.score(), a.score()));
+        return new SearchResult(hits, matched);
+    }
+
+    /**
+     * Reasigna ordinales consecutivos a los documentos vivos y reescribe las
+     * listas sin los huecos dejados por borrados y actualizaciones.
+     */
+    boolean compactIfNeeded() {
+        int dead = size - liveCount;
+        if (dead < MIN_DEAD_FOR_COMPACTION || dead < liveCount / 4) {
+            return false;
+        }
+        int[] remap = new int[size];
+        int next = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (live.get(ordinal)) {
+                remap[ordinal] = next;
+                ids[next] = ids[ordinal];
+                lengths[next] = lengths[ordinal];
+                docPostings[next] = docPostings[ordinal];
+                ordinalById.put(ids[next], next);
+                next++;
+            } else {
+                remap[ordinal] = -1;
+            }
+        }
+        Arrays.fill(docPostings, next, size, null);
+        for (PostingList list : postings.values()) {
+            list.retain(remap);
+        }
+        live.clear();
+        live.set(0, next);
+        size = next;
+        return true;
+    }
+
+    private float idf(int documentFrequency) {
+        return (float) Math.log(1 + (liveCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        lengths = Arrays.copyOf(lengths, newCapacity);
+        docPostings = Arrays.copyOf(docPostings, newCapacity);
+    }
+
+    private static final class PostingList {
+        private final String term;
+        private int[] docs = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+        private int documentFrequency;
+
+        PostingList(String term) {
+            this.term = term;
+        }
+
+        void add(int doc, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+            documentFrequency++;
+        }
+
+        void retain(int[] remap) {
+            int next = 0;
+            for (int i = 0; i < size; i++) {
+                int mapped = remap[docs[i]];
+                if (mapped >= 0) {
+                    docs[next] = mapped;
+                    frequencies[next] = frequencies[i];
+                    next++;
+                }
+            }
+            size = next;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.comparathor.search;
+
+import com.comparathor.event.BrandChangedEvent;
+import com.comparathor.event.CategoryChangedEvent;
+import com.comparathor.event.ProductChangedEvent;
+import com.comparathor.model.Product;
+import com.comparathor.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de búsqueda de productos en memoria (BM25 sobre nombre, modelo,
+ * descripción, marca y categoría) más un vocabulario de nombres y modelos para
+ * la búsqueda tolerante a erratas. Se carga al arrancar y se mantiene al día
+ * con los ProductChangedEvent publicados por ProductService tras el commit, y
+ * con los cambios de marcas y categorías, cuyos nombres también se indexan.
+ */
+@Component
+public class ProductSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float MODEL_WEIGHT = 2f;
+    private static final float BRAND_WEIGHT = 1.5f;
+    private static final float CATEGORY_WEIGHT = 1f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final int FUZZY_EXPANSIONS = 3;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final InvertedIndex index = new InvertedIndex();
+    private final FuzzyTermIndex vocabulary = new FuzzyTermIndex();
+    private final Map<Long, String[]> vocabularyByProduct = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductSearchIndex(ProductRepository productRepository, TransactionTemplate transactionTemplate) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            vocabulary.clear();
+            vocabularyByProduct.clear();
+            transactionTemplate.executeWithoutResult(status ->
+                    productRepository.streamAllProducts(context -> add(context.getResultObject())));
+            index.compactIfNeeded();
+            logger.info("Índice de búsqueda de productos cargado: {} productos en {} ms",
+                    index.liveCount(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<Long> productIds = event.getProductIds();
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Product> products = event.getType() == ProductChangedEvent.Type.DELETED
+                ? List.of()
+                : productRepository.findByIds(productIds.toArray(Long[]::new));
+        refresh(productIds, products);
+    }
+
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onBrandChanged(BrandChangedEvent event) {
+        if (event.getType() == BrandChangedEvent.Type.DELETED) {
+            reload(event.getProductIds());
+        } else if (event.getType() == BrandChangedEvent.Type.UPDATED) {
+            reindex(productRepository.findByBrandOrCategory(event.getBrandId(), null));
+        }
+    }
+
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() == CategoryChangedEvent.Type.DELETED) {
+            reload(event.getProductIds());
+        } else if (event.getType() == CategoryChangedEvent.Type.UPDATED) {
+            reindex(productRepository.findByBrandOrCategory(null, event.getCategoryId()));
+        }
+    }
+
+    public SearchResult search(String query, int limit) {
+        List<String> terms = SearchTokenizer.tokenize(query);
+        if (terms.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Búsqueda tolerante a erratas: las palabras que no existen en el índice se
+     * sustituyen por los términos más cercanos del vocabulario de nombres y
+     * modelos, y se devuelve la consulta corregida como sugerencia.
+     */
+    public SearchResult searchFuzzy(String query, int limit) {
+        List<String> words = SearchTokenizer.words(query);
+        if (words.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+        lock.readLock().lock();
+        try {
+            Set<String> terms = new LinkedHashSet<>();
+            List<String> corrected = new ArrayList<>(words.size());
+            boolean changed = false;
+            for (String word : words) {
+                String stem = SearchTokenizer.stem(word);
+                if (vocabulary.contains(word) || index.containsTerm(stem)) {
+                    terms.add(stem);
+                    corrected.add(word);
+                    continue;
+                }
+                List<String> candidates = vocabulary.closest(word, FUZZY_EXPANSIONS);
+                if (candidates.isEmpty()) {
+                    corrected.add(word);
+                    continue;
+                }
+                candidates.forEach(candidate -> terms.add(SearchTokenizer.stem(candidate)));
+                corrected.add(candidates.get(0));
+                changed = true;
+            }
+            SearchResult result = index.search(new ArrayList<>(terms), limit);
+            return changed ? result.withDidYouMean(String.join(" ", corrected)) : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Vuelve a leer los productos que tenía una marca o categoría borrada. */
+    private void reload(List<Long> productIds) {
+        if (!productIds.isEmpty()) {
+            refresh(productIds, productRepository.findByIds(productIds.toArray(Long[]::new)));
+        }
+    }
+
+    /** Indexa los productos leídos y retira los ids pedidos que ya no existen. */
+    private void refresh(List<Long> productIds, List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> indexed = new HashSet<>();
+            for (Product product : products) {
+                add(product);
+                indexed.add(product.getId());
+            }
+            for (Long productId : productIds) {
+                if (!indexed.contains(productId)) {
+                    remove(productId);
+                }
+            }
+            index.compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Vuelve a indexar los productos de una marca o categoría editada. */
+    private void reindex(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            products.forEach(this::add);
+            index.compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Product product) {
+        updateVocabulary(product.getId(), product);
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0f;
+        length += addField(frequencies, product.getName(), NAME_WEIGHT);
+        length += addField(frequencies, product.getModel(), MODEL_WEIGHT);
+        length += addField(frequencies, product.getBrandName(), BRAND_WEIGHT);
+        length += addField(frequencies, product.getCategoryName(), CATEGORY_WEIGHT);
+        length += addField(frequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+        if (frequencies.isEmpty()) {
+            index.remove(product.getId());
+            return;
+        }
+        index.put(product.getId(), frequencies, length);
+    }
+
+    private void remove(Long productId) {
+        index.remove(productId);
+        updateVocabulary(productId, null);
+    }
+
+    private void updateVocabulary(Long productId, Product product) {
+        String[] previous = product == null
+                ? vocabularyByProduct.remove(productId)
+                : vocabularyByProduct.put(productId, vocabularyWords(product));
+        if (previous != null) {
+            for (String word : previous) {
+                vocabulary.remove(word);
+            }
+        }
+        if (product != null) {
+            for (String word : vocabularyByProduct.get(productId)) {
+                vocabulary.add(word);
+            }
+        }
+    }
+
+    private String[] vocabularyWords(Product product) {
+        Set<String> words = new LinkedHashSet<>(SearchTokenizer.words(product.getName()));
+        words.addAll(SearchTokenizer.words(product.getModel()));
+        return words.toArray(String[]::new);
+    }
+
+    private float addField(Map<String, Float> frequencies, String text, float weight) {
+        List<String> tokens = SearchTokenizer.tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+}
@@ -0,0 +1,126 @@
+package com.comparathor.search;
+
+import com.comparathor.event.ProductChangedEvent;
+import com.comparathor.model.Product;
+import com.comparathor.model.Suggestion;
+import com.comparathor.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Autocompletado por prefijo sobre nombres y modelos de producto, marcas y
+ * categorías. Las consultas se resuelven contra un SuggestionSnapshot
+ * inmutable que se reconstruye al arrancar y periódicamente; los cambios de
+ * productos entre reconstrucciones se guardan en una capa pequeña que se
+ * superpone al snapshot y se vacía en la siguiente reconstrucción.
+ */
+@Component
+public class ProductSuggester {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSuggester.class);
+
+    static final String PRODUCT = "product";
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, PendingChange> pendingChanges = new ConcurrentHashMap<>();
+    private volatile SuggestionSnapshot snapshot = SuggestionSnapshot.EMPTY;
+
+    public ProductSuggester(ProductRepository productRepository, TransactionTemplate transactionTemplate) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${comparathor.suggest.rebuild-interval:PT15M}",
+            fixedDelayString = "${comparathor.suggest.rebuild-interval:PT15M}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        long lastApplied = sequence.get();
+        List<Suggestion> suggestions = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status ->
+                productRepository.streamSuggestionSources(context -> suggestions.add(context.getResultObject())));
+        snapshot = SuggestionSnapshot.build(suggestions, MAX_SUGGESTIONS);
+        // Los cambios anteriores al inicio de la lectura ya están en el snapshot nuevo.
+        pendingChanges.values().removeIf(change -> change.sequence() <= lastApplied);
+        logger.info("Índice de autocompletado cargado: {} entradas en {} ms",
+                snapshot.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<Long> productIds = event.getProductIds();
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Product> products = event.getType() == ProductChangedEvent.Type.DELETED
+                ? List.of()
+                : productRepository.findByIds(productIds.toArray(Long[]::new));
+
+        Set<Long> found = new HashSet<>();
+        for (Product product : products) {
+            found.add(product.getId());
+            Suggestion suggestion = new Suggestion(PRODUCT, product.getId(), product.getName(),
+                    product.getModel(), popularityOf(product.getId()));
+            pendingChanges.put(product.getId(), new PendingChange(suggestion, sequence.incrementAndGet()));
+        }
+        for (Long productId : productIds) {
+            if (!found.contains(productId)) {
+                pendingChanges.put(productId, new PendingChange(null, sequence.incrementAndGet()));
+            }
+        }
+    }
+
+    /**
+     * Hasta limit sugerencias cuyo texto o detalle tiene una palabra que
+     * empieza por el prefijo, de la más popular a la menos.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = SuggestionSnapshot.normalizePrefix(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        SuggestionSnapshot current = snapshot;
+        List<Suggestion> result = new ArrayList<>(current.lookup(normalized, limit, this::isCurrent));
+        for (PendingChange change : pendingChanges.values()) {
+            if (change.suggestion() != null && SuggestionSnapshot.matches(change.suggestion(), normalized)) {
+                result.add(change.suggestion());
+            }
+        }
+        result.sort(SuggestionSnapshot.BY_POPULARITY);
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    private boolean isCurrent(Suggestion suggestion) {
+        return !PRODUCT.equals(suggestion.getType()) || !pendingChanges.containsKey(suggestion.getId());
+    }
+
+    private int popularityOf(Long productId) {
+        PendingChange pending = pendingChanges.get(productId);
+        Suggestion previous = pending != null && pending.suggestion() != null
+                ? pending.suggestion()
+                : snapshot.findProduct(productId);
+        return previous != null && previous.getPopularity() != null ? previous.getPopularity() : 0;
+    }
+
+    private record PendingChange(Suggestion suggestion, long sequence) {
+    }
+}
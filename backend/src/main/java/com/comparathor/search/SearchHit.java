@@ -0,0 +1,4 @@
+package com.comparathor.search;
+
+public record SearchHit(long productId, float score) {
+}
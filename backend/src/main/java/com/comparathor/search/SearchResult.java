@@ -0,0 +1,18 @@
+package com.comparathor.search;
+
+import java.util.List;
+
+public record SearchResult(List<SearchHit> hits, int total, String didYouMean) {
+
+    public SearchResult(List<SearchHit> hits, int total) {
+        this(hits, total, null);
+    }
+
+    public SearchResult withDidYouMean(String didYouMean) {
+        return new SearchResult(hits, total, didYouMean);
+    }
+
+    public List<Long> productIds() {
+        return hits.stream().map(SearchHit::productId).toList();
+    }
+}
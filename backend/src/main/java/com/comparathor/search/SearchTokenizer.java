@@ -0,0 +1,76 @@
+package com.comparathor.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenizador para textos de catálogo en español e inglés: minúsculas, sin
+ * tildes, sin palabras vacías y con un stemming ligero de plurales.
+ */
+public final class SearchTokenizer {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            // español
+            "a", "al", "con", "de", "del", "el", "en", "es", "la", "las", "lo", "los", "o", "para",
+            "por", "se", "sin", "su", "sus", "u", "un", "una", "unas", "unos", "y",
+            // inglés
+            "an", "and", "as", "at", "by", "for", "from", "in", "is", "it", "of", "on", "or",
+            "the", "to", "with"
+    );
+
+    private SearchTokenizer() {
+    }
+
+    public static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = words(text);
+        tokens.replaceAll(SearchTokenizer::stem);
+        return tokens;
+    }
+
+    /**
+     * Palabras normalizadas sin stemming; son las formas que se muestran en
+     * las sugerencias "quizás quisiste decir".
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return words;
+        }
+        for (String raw : SEPARATORS.split(normalize(text))) {
+            if (raw.isEmpty() || STOPWORDS.contains(raw)) {
+                continue;
+            }
+            words.add(raw);
+        }
+        return words;
+    }
+
+    /**
+     * Stemming mínimo compartido por ambos idiomas: "móviles" → "movil",
+     * "phones" → "phon", "phone" → "phon". Los tokens con dígitos no se tocan.
+     */
+    static String stem(String token) {
+        if (token.length() <= 3 || !Character.isLetter(token.charAt(token.length() - 1))) {
+            return token;
+        }
+        String stem = token;
+        if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us") && !stem.endsWith("is")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        if (stem.length() > 4 && stem.endsWith("e")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+}
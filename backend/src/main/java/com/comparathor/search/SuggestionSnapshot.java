@@ -0,0 +1,190 @@
+package com.comparathor.search;
+
+import com.comparathor.model.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Estructura inmutable de prefijos para autocompletado. Es un trie aplanado:
+ * las claves (cada sufijo de palabra del texto normalizado) se guardan en un
+ * único array ordenado, de modo que todas las claves con un prefijo dado forman
+ * un rango contiguo que se localiza con dos búsquedas binarias. Para los
+ * prefijos cortos, cuyo rango es enorme, el top-N por popularidad se calcula al
+ * construir.
+ */
+final class SuggestionSnapshot {
+    private static final int PRECOMPUTED_PREFIX_LENGTH = 3;
+    private static final int MAX_KEYS_PER_ENTRY = 8;
+    static final Comparator<Suggestion> BY_POPULARITY = Comparator
+            .comparing((Suggestion s) -> s.getPopularity() != null ? s.getPopularity() : 0).reversed()
+            .thenComparing(Suggestion::getText, Comparator.nullsLast(Comparator.naturalOrder()));
+    static final SuggestionSnapshot EMPTY = build(List.of(), 1);
+
+    private final Suggestion[] entries;
+    private final String[] keys;
+    private final int[] keyEntries;
+    private final Map<String, int[]> topByShortPrefix;
+    private final Map<Long, Integer> productEntries;
+    private final int topSize;
+
+    private SuggestionSnapshot(Suggestion[] entries, String[] keys, int[] keyEntries,
+                               Map<String, int[]> topByShortPrefix, Map<Long, Integer> productEntries,
+                               int topSize) {
+        this.entries = entries;
+        this.keys = keys;
+        this.keyEntries = keyEntries;
+        this.topByShortPrefix = topByShortPrefix;
+        this.productEntries = productEntries;
+        this.topSize = topSize;
+    }
+
+    static SuggestionSnapshot build(List<Suggestion> suggestions, int topSize) {
+        Suggestion[] entries = suggestions.toArray(Suggestion[]::new);
+        Map<Long, Integer> productEntries = new HashMap<>();
+        List<KeyRef> refs = new ArrayList<>();
+        for (int i = 0; i < entries.length; i++) {
+            if (ProductSuggester.PRODUCT.equals(entries[i].getType())) {
+                productEntries.put(entries[i].getId(), i);
+            }
+            for (String key : keysFor(entries[i])) {
+                refs.add(new KeyRef(key, i));
+            }
+        }
+        refs.sort(Comparator.comparing(KeyRef::key));
+
+        String[] keys = new String[refs.size()];
+        int[] keyEntries = new int[refs.size()];
+        for (int i = 0; i < refs.size(); i++) {
+            keys[i] = refs.get(i).key();
+            keyEntries[i] = refs.get(i).entry();
+        }
+
+        Map<String, int[]> topByShortPrefix = new HashMap<>();
+        for (int length = 1; length <= PRECOMPUTED_PREFIX_LENGTH; length++) {
+            int start = 0;
+            while (start < keys.length) {
+                if (keys[start].length() < length) {
+                    start++;
+                    continue;
+                }
+                String prefix = keys[start].substring(0, length);
+                int end = start;
+                while (end < keys.length && keys[end].startsWith(prefix)) {
+                    end++;
+                }
+                topByShortPrefix.put(prefix, topEntries(entries, keyEntries, start, end, topSize, s -> true)
+                        .stream().mapToInt(Integer::intValue).toArray());
+                start = end;
+            }
+        }
+        return new SuggestionSnapshot(entries, keys, keyEntries, topByShortPrefix, productEntries, topSize);
+    }
+
+    Suggestion findProduct(Long productId) {
+        Integer entry = productEntries.get(productId);
+        return entry != null ? entries[entry] : null;
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    /**
+     * Devuelve hasta limit entradas visibles cuyo texto contiene una palabra que
+     * empieza por el prefijo (ya normalizado), ordenadas por popularidad.
+     */
+    List<Suggestion> lookup(String prefix, int limit, Predicate<Suggestion> visible) {
+        if (prefix.length() <= PRECOMPUTED_PREFIX_LENGTH) {
+            int[] top = topByShortPrefix.getOrDefault(prefix, new int[0]);
+            List<Suggestion> result = new ArrayList<>(limit);
+            for (int entry : top) {
+                if (visible.test(entries[entry])) {
+                    result.add(entries[entry]);
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                }
+            }
+            if (top.length < topSize) {
+                return result;
+            }
+        }
+        int start = lowerBound(prefix);
+        int end = lowerBound(prefix + Character.MAX_VALUE);
+        return topEntries(entries, keyEntries, start, end, limit, visible).stream()
+                .map(entry -> entries[entry])
+                .toList();
+    }
+
+    static String normalizePrefix(String prefix) {
+        return SearchTokenizer.normalize(prefix).trim().replaceAll("\\s+", " ");
+    }
+
+    static boolean matches(Suggestion suggestion, String prefix) {
+        return keysFor(suggestion).stream().anyMatch(key -> key.startsWith(prefix));
+    }
+
+    static List<String> keysFor(Suggestion suggestion) {
+        Set<String> keys = new LinkedHashSet<>();
+        addWordSuffixes(keys, suggestion.getText());
+        addWordSuffixes(keys, suggestion.getDetail());
+        return keys.stream().limit(MAX_KEYS_PER_ENTRY).toList();
+    }
+
+    private static void addWordSuffixes(Set<String> keys, String text) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String[] words = SearchTokenizer.normalize(text).trim().split("\\s+");
+        for (int i = 0; i < words.length; i++) {
+            keys.add(String.join(" ", Arrays.copyOfRange(words, i, words.length)));
+        }
+    }
+
+    private static List<Integer> topEntries(Suggestion[] entries, int[] keyEntries, int start, int end,
+                                            int limit, Predicate<Suggestion> visible) {
+        Comparator<Integer> byPopularity = (a, b) -> BY_POPULARITY.compare(entries[a], entries[b]);
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, byPopularity.reversed());
+        Set<Integer> seen = new HashSet<>();
+        for (int i = start; i < end; i++) {
+            int entry = keyEntries[i];
+            if (!seen.add(entry) || !visible.test(entries[entry])) {
+                continue;
+            }
+            top.add(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Integer> result = new ArrayList<>(top);
+        result.sort(byPopularity);
+        return result;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private record KeyRef(String key, int entry) {
+    }
+}
@@ -0,0 +1,269 @@
+package com.comparathor.search;
+
+import com.comparathor.event.ProductChangedEvent;
+import com.comparathor.event.RatingChangedEvent;
+import com.comparathor.model.TopRatedEntry;
+import com.comparathor.repository.RatingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Rankings de productos mejor valorados, global y por categoría, con media
+ * bayesiana: (priorWeight * media global + suma) / (priorWeight + nº de
+ * valoraciones). Cada ranking guarda como mucho CAPACITY entradas y se
+ * actualiza con cada cambio de valoración o de producto.
+ *
+ * <p>Un ranking acotado sigue siendo exacto mientras los productos que
+ * quedaron fuera no puedan superar a su último elemento. Si un producto del
+ * ranking baja por debajo de ese último, sale del ranking. Cuando quedan
+ * menos de MAX_LIMIT entradas, se recarga ese ranking desde
+ * product_rating_summary. La media global se fija en cada reconstrucción
+ * periódica para que las puntuaciones sean comparables entre sí.
+ */
+@Component
+public class TopRatedLeaderboards {
+    private static final Logger logger = LoggerFactory.getLogger(TopRatedLeaderboards.class);
+
+    public static final int MAX_LIMIT = 50;
+    static final int CAPACITY = MAX_LIMIT * 2;
+    private static final Comparator<Scored> BY_SCORE = Comparator.comparingDouble(Scored::score).reversed()
+            .thenComparingLong(Scored::productId);
+
+    private final RatingRepository ratingRepository;
+    private final double priorWeight;
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final Object refreshLock = new Object();
+    private volatile boolean rebuilding;
+    private volatile Snapshot snapshot = new Snapshot(0, new Leaderboard(true), new ConcurrentHashMap<>());
+
+    public TopRatedLeaderboards(RatingRepository ratingRepository,
+                                @Value("${comparathor.ratings.top-rated.prior-weight:10}") double priorWeight) {
+        this.ratingRepository = ratingRepository;
+        this.priorWeight = priorWeight;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${comparathor.ratings.top-rated.rebuild-interval:PT1H}",
+            fixedDelayString = "${comparathor.ratings.top-rated.rebuild-interval:PT1H}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        try {
+            double globalMean = ratingRepository.findGlobalRatingMean();
+            List<TopRatedEntry> candidates = ratingRepository.findTopRatedCandidates(
+                    globalMean, priorWeight, null, true, CAPACITY);
+
+            Map<Long, Leaderboard> byCategory = new ConcurrentHashMap<>();
+            Map<Long, List<Scored>> grouped = new HashMap<>();
+            List<Scored> all = new ArrayList<>(candidates.size());
+            for (TopRatedEntry entry : candidates) {
+                Scored scored = score(entry, globalMean);
+                all.add(scored);
+                if (entry.getCategoryId() != null) {
+                    grouped.computeIfAbsent(entry.getCategoryId(), id -> new ArrayList<>()).add(scored);
+                }
+            }
+            grouped.forEach((categoryId, entries) -> {
+                Leaderboard leaderboard = new Leaderboard(entries.size() < CAPACITY);
+                leaderboard.replace(entries, entries.size() < CAPACITY);
+                byCategory.put(categoryId, leaderboard);
+            });
+            // El top global está contenido en la unión de los top de cada categoría.
+            all.sort(BY_SCORE);
+            Leaderboard global = new Leaderboard(all.size() < CAPACITY);
+            global.replace(all.subList(0, Math.min(all.size(), CAPACITY)), all.size() < CAPACITY);
+
+            snapshot = new Snapshot(globalMean, global, byCategory);
+            logger.info("Rankings de mejor valorados cargados: {} categorías, media global {} en {} ms",
+                    byCategory.size(), globalMean, System.currentTimeMillis() - start);
+        } finally {
+            rebuilding = false;
+        }
+        if (!changedDuringRebuild.isEmpty()) {
+            List<Long> changed = new ArrayList<>(changedDuringRebuild);
+            changedDuringRebuild.removeAll(changed);
+            refresh(changed);
+        }
+    }
+
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onRatingChanged(RatingChangedEvent event) {
+        onChange(List.of(event.getProductId()));
+    }
+
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() != ProductChangedEvent.Type.CREATED) {
+            onChange(event.getProductIds());
+        }
+    }
+
+    /**
+     * Hasta limit productos con mejor puntuación de la categoría, o de todo el
+     * catálogo si categoryId es null.
+     */
+    public List<Scored> top(Long categoryId, int limit) {
+        Snapshot current = snapshot;
+        Leaderboard leaderboard = categoryId == null ? current.global() : current.byCategory().get(categoryId);
+        return leaderboard == null ? List.of() : leaderboard.top(Math.min(limit, MAX_LIMIT));
+    }
+
+    public double getGlobalMean() {
+        return snapshot.globalMean();
+    }
+
+    public double getPriorWeight() {
+        return priorWeight;
+    }
+
+    private void onChange(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        if (rebuilding) {
+            changedDuringRebuild.addAll(productIds);
+        }
+        refresh(productIds);
+    }
+
+    /**
+     * Los refrescos se serializan: una recarga leída antes del commit de otro
+     * cambio no puede pisar la actualización de ese cambio.
+     */
+    private void refresh(Collection<Long> productIds) {
+        synchronized (refreshLock) {
+            refreshEntries(snapshot, productIds);
+        }
+    }
+
+    private void refreshEntries(Snapshot current, Collection<Long> productIds) {
+        Map<Long, TopRatedEntry> entries = ratingRepository.findTopRatedEntries(productIds.toArray(Long[]::new))
+                .stream()
+                .collect(Collectors.toMap(TopRatedEntry::getProductId, Function.identity()));
+
+        for (Long productId : productIds) {
+            TopRatedEntry entry = entries.get(productId);
+            Scored scored = entry != null && entry.getRatingCount() > 0 ? score(entry, current.globalMean()) : null;
+            Long categoryId = entry != null ? entry.getCategoryId() : null;
+
+            // Si el producto cambió de categoría o se borró, sale de los demás rankings.
+            current.byCategory().forEach((otherCategoryId, leaderboard) -> {
+                if (!otherCategoryId.equals(categoryId) && leaderboard.update(productId, null)) {
+                    reload(current, otherCategoryId, leaderboard);
+                }
+            });
+            if (categoryId != null) {
+                Leaderboard leaderboard = current.byCategory()
+                        .computeIfAbsent(categoryId, id -> new Leaderboard(true));
+                if (leaderboard.update(productId, scored)) {
+                    reload(current, categoryId, leaderboard);
+                }
+            }
+            if (current.global().update(productId, scored)) {
+                reload(current, null, current.global());
+            }
+        }
+    }
+
+    private void reload(Snapshot current, Long categoryId, Leaderboard leaderboard) {
+        List<Scored> entries = ratingRepository.findTopRatedCandidates(
+                        current.globalMean(), priorWeight, categoryId, false, CAPACITY)
+                .stream()
+                .map(entry -> score(entry, current.globalMean()))
+                .toList();
+        leaderboard.replace(entries, entries.size() < CAPACITY);
+    }
+
+    private Scored score(TopRatedEntry entry, double globalMean) {
+        double score = (priorWeight * globalMean + entry.getRatingSum()) / (priorWeight + entry.getRatingCount());
+        return new Scored(entry.getProductId(), score, entry.getRatingCount());
+    }
+
+    public record Scored(long productId, double score, int ratingCount) {
+    }
+
+    private record Snapshot(double globalMean, Leaderboard global, Map<Long, Leaderboard> byCategory) {
+    }
+
+    /**
+     * Ranking acotado. exhaustive indica que contiene todos los productos
+     * valorados de su ámbito, y entonces no hace falta recargarlo nunca.
+     */
+    private static final class Leaderboard {
+        private final TreeSet<Scored> ranking = new TreeSet<>(BY_SCORE);
+        private final Map<Long, Scored> byProduct = new HashMap<>();
+        private boolean exhaustive;
+
+        Leaderboard(boolean exhaustive) {
+            this.exhaustive = exhaustive;
+        }
+
+        synchronized void replace(List<Scored> entries, boolean exhaustive) {
+            ranking.clear();
+            byProduct.clear();
+            for (Scored entry : entries) {
+                ranking.add(entry);
+                byProduct.put(entry.productId(), entry);
+            }
+            this.exhaustive = exhaustive;
+        }
+
+        /**
+         * Aplica la nueva puntuación (null = sin valoraciones o fuera de este
+         * ámbito). Devuelve true si el ranking ya no garantiza MAX_LIMIT
+         * entradas exactas y hay que recargarlo.
+         */
+        synchronized boolean update(long productId, Scored scored) {
+            Scored previous = byProduct.remove(productId);
+            if (previous == null && scored == null) {
+                return false;
+            }
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+            if (scored != null && (exhaustive || (!ranking.isEmpty() && BY_SCORE.compare(scored, ranking.last()) < 0))) {
+                ranking.add(scored);
+                byProduct.put(productId, scored);
+                if (ranking.size() > CAPACITY) {
+                    byProduct.remove(ranking.pollLast().productId());
+                    exhaustive = false;
+                }
+            }
+            return !exhaustive && ranking.size() < MAX_LIMIT;
+        }
+
+        synchronized List<Scored> top(int limit) {
+            List<Scored> result = new ArrayList<>(Math.min(limit, ranking.size()));
+            for (Scored entry : ranking) {
+                if (result.size() == limit) {
+                    break;
+                }
+                result.add(entry);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.comparathor.service;
+
+import com.comparathor.model.BrandRatingChunk;
+import com.comparathor.repository.RatingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recalcula brands.reliability (1-5) a partir de las valoraciones de sus
+ * productos. Recorre ratings en tramos de chunkSize por id, cada uno con su
+ * propia consulta corta, acumula nº y suma por marca y escribe el resultado
+ * con una sola sentencia. La nota es la media bayesiana hacia la media global
+ * (como en TopRatedLeaderboards) redondeada; las marcas con menos de
+ * minRatings valoraciones conservan el valor introducido a mano.
+ *
+ * <p>Métricas: brands.reliability.duration (duración de cada ejecución),
+ * brands.reliability.progress (0-1 de la ejecución en curso),
+ * brands.reliability.ratings (valoraciones leídas) y
+ * brands.reliability.updated (marcas cambiadas en la última ejecución).
+ */
+@Component
+public class BrandReliabilityJob {
+    private static final Logger logger = LoggerFactory.getLogger(BrandReliabilityJob.class);
+    private static final int MIN_RELIABILITY = 1;
+    private static final int MAX_RELIABILITY = 5;
+
+    private final RatingRepository ratingRepository;
+    private final BrandService brandService;
+    private final int chunkSize;
+    private final double priorWeight;
+    private final int minRatings;
+    private final Timer durationTimer;
+    private final Counter ratingsCounter;
+    private volatile double progress = 1;
+    private volatile int lastUpdated;
+
+    public BrandReliabilityJob(RatingRepository ratingRepository,
+                               BrandService brandService,
+                               MeterRegistry meterRegistry,
+                               @Value("${comparathor.brands.reliability.chunk-size:5000}") int chunkSize,
+                               @Value("${comparathor.brands.reliability.prior-weight:20}") double priorWeight,
+                               @Value("${comparathor.brands.reliability.min-ratings:10}") int minRatings) {
+        this.ratingRepository = ratingRepository;
+        this.brandService = brandService;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.priorWeight = priorWeight;
+        this.minRatings = minRatings;
+        this.durationTimer = Timer.builder("brands.reliability.duration")
+                .description("Duración del recálculo de fiabilidad de marcas")
+                .register(meterRegistry);
+        this.ratingsCounter = Counter.builder("brands.reliability.ratings")
+                .description("Valoraciones leídas por el recálculo de fiabilidad")
+                .register(meterRegistry);
+        Gauge.builder("brands.reliability.progress", this, job -> job.progress)
+                .description("Avance del recálculo de fiabilidad en curso (0-1)")
+                .register(meterRegistry);
+        Gauge.builder("brands.reliability.updated", this, job -> job.lastUpdated)
+                .description("Marcas actualizadas en el último recálculo")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${comparathor.brands.reliability.interval:PT6H}",
+            fixedDelayString = "${comparathor.brands.reliability.interval:PT6H}")
+    public synchronized void recompute() {
+        durationTimer.record(this::run);
+    }
+
+    private void run() {
+        long start = System.currentTimeMillis();
+        // Las valoraciones posteriores a maxId se recogen en la siguiente ejecución.
+        long maxId = ratingRepository.findMaxRatingId();
+        // Por marca: [nº de valoraciones, suma]
+        Map<Long, double[]> totals = new HashMap<>();
+        long totalCount = 0;
+        double totalSum = 0;
+        long afterId = 0;
+        progress = 0;
+        try {
+            while (afterId < maxId) {
+                List<BrandRatingChunk> chunk = ratingRepository.findBrandRatingChunk(afterId, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                long chunkCount = 0;
+                for (BrandRatingChunk row : chunk) {
+                    afterId = Math.max(afterId, row.getLastRatingId());
+                    chunkCount += row.getRatingCount();
+                    if (row.getBrandId() == null) {
+                        continue;
+                    }
+                    double[] brandTotals = totals.computeIfAbsent(row.getBrandId(), id -> new double[2]);
+                    brandTotals[0] += row.getRatingCount();
+                    brandTotals[1] += row.getRatingSum();
+                    totalCount += row.getRatingCount();
+                    totalSum += row.getRatingSum();
+                }
+                ratingsCounter.increment(chunkCount);
+                progress = Math.min(1, (double) afterId / maxId);
+            }
+        } finally {
+            progress = 1;
+        }
+
+        double globalMean = totalCount > 0 ? totalSum / totalCount : 0;
+        List<Long> brandIds = new ArrayList<>();
+        List<Integer> reliabilities = new ArrayList<>();
+        totals.forEach((brandId, brandTotals) -> {
+            if (brandTotals[0] < minRatings) {
+                return;
+            }
+            double score = (priorWeight * globalMean + brandTotals[1]) / (priorWeight + brandTotals[0]);
+            brandIds.add(brandId);
+            reliabilities.add((int) Math.max(MIN_RELIABILITY, Math.min(MAX_RELIABILITY, Math.round(score))));
+        });
+
+        // BrandService publica un BrandChangedEvent por marca cambiada: cachés y ETag se actualizan con él.
+        int updated = brandIds.isEmpty() ? 0 : brandService.updateReliabilities(
+                brandIds.toArray(Long[]::new), reliabilities.toArray(Integer[]::new));
+        lastUpdated = updated;
+        logger.info("Fiabilidad recalculada: {} valoraciones, {} marcas evaluadas, {} actualizadas en {} ms",
+                totalCount, brandIds.size(), updated, System.currentTimeMillis() - start);
+    }
+}
@@ -1,10 +1,13 @@
 package com.comparathor.service;
 
+import com.comparathor.event.BrandChangedEvent;
 import com.comparathor.exception.BadRequestException;
 import com.comparathor.exception.ResourceNotFoundException;
 import com.comparathor.model.Brand;
 import com.comparathor.repository.BrandRepository;
+import com.comparathor.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,13 +21,17 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class BrandService {
     private final BrandRepository brandRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Brand createBrand(Brand brand) {
         if (brandRepository.existsByName(brand.getName())) {
             throw new BadRequestException("La marca '" + brand.getName() + "' ya existe.");
         }
-        return brandRepository.save(brand);
+        brandRepository.save(brand);
+        eventPublisher.publishEvent(new BrandChangedEvent(BrandChangedEvent.Type.CREATED, brand.getId()));
+        return brand;
     }
 
     @Transactional(readOnly = true)
@@ -72,7 +79,20 @@ public class BrandService {
         if (brand.getLogoUrl() != null) {
             existingBrand.setLogoUrl(brand.getLogoUrl());
         }
-        brandRepository.save(existingBrand);
+        brandRepository.updateBrand(existingBrand);
+        eventPublisher.publishEvent(new BrandChangedEvent(BrandChangedEvent.Type.UPDATED, id));
+    }
+
+    /**
+     * Escribe las fiabilidades calculadas por BrandReliabilityJob y publica un
+     * evento por cada marca cuyo valor cambia, para que las fichas cacheadas y
+     * el ETag de marcas se actualicen como con una edición manual.
+     */
+    @Transactional
+    public int updateReliabilities(Long[] brandIds, Integer[] reliabilities) {
+        List<Long> changed = brandRepository.updateReliabilities(brandIds, reliabilities);
+        changed.forEach(id -> eventPublisher.publishEvent(new BrandChangedEvent(BrandChangedEvent.Type.UPDATED, id)));
+        return changed.size();
     }
 
     @Transactional
@@ -80,6 +100,8 @@ public class BrandService {
         if (!brandRepository.existsById(id)) {
             throw new ResourceNotFoundException("❌ Marca con ID " + id + " no encontrada.");
         }
+        List<Long> productIds = productRepository.findIdsByBrandOrCategory(id, null);
         brandRepository.delete(id);
+        eventPublisher.publishEvent(new BrandChangedEvent(BrandChangedEvent.Type.DELETED, id, productIds));
     }
 }
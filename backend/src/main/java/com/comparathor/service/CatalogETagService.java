@@ -0,0 +1,126 @@
+package com.comparathor.service;
+
+import com.comparathor.event.BrandChangedEvent;
+import com.comparathor.event.CategoryChangedEvent;
+import com.comparathor.event.ComparisonChangedEvent;
+import com.comparathor.event.ProductChangedEvent;
+import com.comparathor.event.RatingChangedEvent;
+import com.comparathor.repository.CatalogVersionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * ETag de las lecturas del catálogo a partir de la versión de las tablas que
+ * componen la respuesta y de la URL pedida. Se comprueba antes de ejecutar la
+ * consulta del listado: si el cliente ya tiene la versión vigente se responde
+ * 304 sin leer las filas.
+ *
+ * <p>Cada tabla tiene una secuencia en la base de datos (migración 003) que
+ * los oyentes de abajo avanzan con los eventos de cambio después del commit,
+ * así que la comparten todas las instancias y las escrituras no comparten
+ * ninguna fila ni bloqueo. Como la versión se lee antes que los datos y se
+ * avanza después del commit, un ETag antiguo puede acompañar a datos ya
+ * nuevos, lo que solo provoca una descarga de más en la siguiente
+ * revalidación; nunca al revés.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogETagService {
+    public static final String[] BRAND_TABLES = {"brands"};
+    public static final String[] CATEGORY_TABLES = {"categories"};
+    /** Los listados muestran nº y media de valoraciones. */
+    public static final String[] PRODUCT_TABLES = {"products", "brands", "categories", "ratings"};
+    public static final String[] COMPARISON_TABLES = {"comparisons", "products", "brands", "categories"};
+    public static final String[] MATRIX_TABLES = {"comparisons", "products", "brands", "categories", "ratings"};
+
+    /** Marcas y categorías casi no cambian: se pueden reutilizar un minuto sin preguntar. */
+    public static final CacheControl REFERENCE_CACHE = CacheControl.maxAge(Duration.ofMinutes(1)).cachePrivate();
+    /** Productos y comparaciones se revalidan siempre; el 304 evita reenviar el cuerpo. */
+    public static final CacheControl CATALOG_CACHE = CacheControl.noCache().cachePrivate();
+
+    private final CatalogVersionRepository catalogVersionRepository;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onBrandChanged(BrandChangedEvent event) {
+        catalogVersionRepository.bump("brands");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        catalogVersionRepository.bump("categories");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onProductChanged(ProductChangedEvent event) {
+        catalogVersionRepository.bump("products");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onRatingChanged(RatingChangedEvent event) {
+        catalogVersionRepository.bump("ratings");
+    }
+
+    /** Las comparaciones y sus productos comparten versión. */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onComparisonChanged(ComparisonChangedEvent event) {
+        catalogVersionRepository.bump("comparisons");
+    }
+
+    /**
+     * Calcula el ETag, fija Cache-Control y comprueba If-None-Match. Devuelve
+     * true cuando la respuesta ya es un 304 y el controlador debe devolver null.
+     */
+    public boolean checkNotModified(WebRequest request, CacheControl cacheControl, String... tables) {
+        long version = catalogVersionRepository.sumVersions(tables);
+        if (request instanceof NativeWebRequest nativeRequest) {
+            HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+            if (response != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+            }
+        }
+        return request.checkNotModified(etag(request, version));
+    }
+
+    private String etag(WebRequest request, long version) {
+        StringBuilder key = new StringBuilder().append(version).append('|');
+        if (request instanceof NativeWebRequest nativeRequest) {
+            HttpServletRequest servletRequest = nativeRequest.getNativeRequest(HttpServletRequest.class);
+            if (servletRequest != null) {
+                key.append(servletRequest.getRequestURI());
+                if (servletRequest.getQueryString() != null) {
+                    key.append('?').append(servletRequest.getQueryString());
+                }
+            }
+        }
+        return '"' + sha256(key.toString()) + '"';
+    }
+
+    private String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible.", e);
+        }
+    }
+}
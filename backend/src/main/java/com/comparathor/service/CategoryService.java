@@ -1,10 +1,13 @@
 package com.comparathor.service;
 
+import com.comparathor.event.CategoryChangedEvent;
 import com.comparathor.exception.BadRequestException;
 import com.comparathor.exception.ResourceNotFoundException;
 import com.comparathor.model.Category;
 import com.comparathor.repository.CategoryRepository;
+import com.comparathor.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,13 +21,17 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CategoryService {
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Category createCategory(Category category) {
         if (categoryRepository.existsByName(category.getName())) {
             throw new BadRequestException("❌ La categoría '" + category.getName() + "' ya existe.");
         }
-        return categoryRepository.save(category);
+        categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, category.getId()));
+        return category;
     }
 
     @Transactional(readOnly = true)
@@ -77,7 +84,9 @@ public class CategoryService {
             existingCategory.setIsActive(category.getIsActive());
         }
 
-        return categoryRepository.save(existingCategory);
+        categoryRepository.updateCategory(existingCategory);
+        eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, id));
+        return existingCategory;
     }
 
     @Transactional
@@ -86,7 +95,9 @@ public class CategoryService {
             throw new ResourceNotFoundException("❌ Categoría con ID " + id + " no encontrada.");
         }
 
+        List<Long> productIds = productRepository.findIdsByBrandOrCategory(null, id);
         categoryRepository.delete(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, id, productIds));
     }
 
 }
@@ -0,0 +1,91 @@
+package com.comparathor.service;
+
+import com.comparathor.exception.ResourceNotFoundException;
+import com.comparathor.model.CoOccurrence;
+import com.comparathor.model.Product;
+import com.comparathor.repository.CoOccurrenceRepository;
+import com.comparathor.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * "Comparado a menudo con": pares de productos que aparecen juntos en
+ * comparaciones, en product_co_occurrence. ComparisonService la actualiza en la
+ * misma transacción que comparison_products y las lecturas no recorren
+ * comparaciones.
+ */
+@Service
+public class CoOccurrenceService {
+    public static final int MAX_LIMIT = 50;
+
+    private final CoOccurrenceRepository coOccurrenceRepository;
+    private final ProductRepository productRepository;
+
+    public CoOccurrenceService(CoOccurrenceRepository coOccurrenceRepository, ProductRepository productRepository) {
+        this.coOccurrenceRepository = coOccurrenceRepository;
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Productos añadidos a una comparación que ahora contiene productIds: suma
+     * uno a cada par nuevo, es decir, a los que incluyen algún producto añadido.
+     */
+    public void recordAdded(Collection<Long> productIds, Collection<Long> addedIds) {
+        if (productIds.size() < 2 || addedIds.isEmpty()) {
+            return;
+        }
+        coOccurrenceRepository.applyPairDelta(productIds.toArray(Long[]::new), addedIds.toArray(Long[]::new), 1);
+    }
+
+    /**
+     * Productos quitados de una comparación que contenía productIds: resta uno
+     * a los pares que incluyen algún producto quitado y borra los que quedan a cero.
+     */
+    public void recordRemoved(Collection<Long> productIds, Collection<Long> removedIds) {
+        if (productIds.size() < 2 || removedIds.isEmpty()) {
+            return;
+        }
+        Long[] members = productIds.toArray(Long[]::new);
+        coOccurrenceRepository.applyPairDelta(members, removedIds.toArray(Long[]::new), -1);
+        coOccurrenceRepository.deleteEmptyPairs(members);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getComparedWith(Long productId, int limit) {
+        if (productRepository.findById(productId) == null) {
+            throw new ResourceNotFoundException("Producto no encontrado con ID: " + productId);
+        }
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<CoOccurrence> neighbours = coOccurrenceRepository.findTopByProductId(productId, size);
+
+        Map<Long, Product> byId = new HashMap<>();
+        if (!neighbours.isEmpty()) {
+            Long[] ids = neighbours.stream().map(CoOccurrence::getOtherProductId).toArray(Long[]::new);
+            for (Product product : productRepository.findByIds(ids)) {
+                byId.put(product.getId(), product);
+            }
+        }
+        List<Map<String, Object>> content = new ArrayList<>(neighbours.size());
+        for (CoOccurrence neighbour : neighbours) {
+            Product product = byId.get(neighbour.getOtherProductId());
+            if (product != null) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("product", product);
+                entry.put("comparisons", neighbour.getPairCount());
+                content.add(entry);
+            }
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("productId", productId);
+        response.put("content", content);
+        response.put("limit", size);
+        return response;
+    }
+}
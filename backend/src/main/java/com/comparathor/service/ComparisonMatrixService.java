@@ -0,0 +1,232 @@
+package com.comparathor.service;
+
+import com.comparathor.event.BrandChangedEvent;
+import com.comparathor.event.CategoryChangedEvent;
+import com.comparathor.event.ProductChangedEvent;
+import com.comparathor.event.RatingChangedEvent;
+import com.comparathor.exception.BadRequestException;
+import com.comparathor.exception.ResourceNotFoundException;
+import com.comparathor.model.Product;
+import com.comparathor.repository.ComparisonProductRepository;
+import com.comparathor.repository.ComparisonRepository;
+import com.comparathor.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Matriz de comparación (GET /api/comparisons/{id}/matrix y
+ * GET /api/comparisons/matrix?productIds=): una columna por producto, en orden
+ * de id, y una fila por atributo comparable con los productos de mínimo y
+ * máximo y si todos coinciden. Se cachea por el conjunto ordenado de ids, así
+ * que una comparación guardada y la misma selección ad hoc comparten entrada;
+ * cualquier cambio de un producto o de sus valoraciones invalida las matrices
+ * que lo contienen. Las filas de marca y categoría llevan nombres, así que
+ * editar o borrar una marca o categoría vacía la caché entera.
+ */
+@Service
+public class ComparisonMatrixService {
+    public static final int MAX_PRODUCTS = 20;
+
+    private final ComparisonRepository comparisonRepository;
+    private final ComparisonProductRepository comparisonProductRepository;
+    private final ProductRepository productRepository;
+    private final Cache<List<Long>, Map<String, Object>> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ComparisonMatrixService(
+            ComparisonRepository comparisonRepository,
+            ComparisonProductRepository comparisonProductRepository,
+            ProductRepository productRepository,
+            MeterRegistry meterRegistry,
+            @Value("${comparathor.comparisons.matrix-cache.max-size:2000}") long maxSize,
+            @Value("${comparathor.comparisons.matrix-cache.ttl:PT10M}") Duration ttl) {
+        this.comparisonRepository = comparisonRepository;
+        this.comparisonProductRepository = comparisonProductRepository;
+        this.productRepository = productRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "comparisons.matrix");
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getComparisonMatrix(Long comparisonId) {
+        if (comparisonId == null || comparisonId <= 0) {
+            throw new BadRequestException("ID de comparación inválido.");
+        }
+        if (comparisonRepository.existsById(comparisonId) == 0) {
+            throw new ResourceNotFoundException("Comparación no encontrada con ID: " + comparisonId);
+        }
+        Map<String, Object> response = new HashMap<>(
+                getMatrix(comparisonProductRepository.findProductIdsByComparisonId(comparisonId)));
+        response.put("comparisonId", comparisonId);
+        return response;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getProductsMatrix(List<Long> productIds) {
+        long distinct = productIds == null ? 0 : productIds.stream().filter(Objects::nonNull).distinct().count();
+        if (distinct < 2) {
+            throw new BadRequestException("Se requieren al menos dos productos distintos.");
+        }
+        if (distinct > MAX_PRODUCTS) {
+            throw new BadRequestException("Solo se pueden comparar " + MAX_PRODUCTS + " productos a la vez.");
+        }
+        return getMatrix(productIds);
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.getProductIds());
+    }
+
+    @TransactionalEventListener
+    public void onRatingChanged(RatingChangedEvent event) {
+        evict(List.of(event.getProductId()));
+    }
+
+    @TransactionalEventListener
+    public void onBrandChanged(BrandChangedEvent event) {
+        if (event.getType() != BrandChangedEvent.Type.CREATED) {
+            evictAll();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() != CategoryChangedEvent.Type.CREATED) {
+            evictAll();
+        }
+    }
+
+    private Map<String, Object> getMatrix(List<Long> productIds) {
+        List<Long> key = productIds.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        Map<String, Object> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        // Igual que en ProductDetailService: no se guarda lo leído mientras se confirmaba un cambio.
+        long generation = invalidations.get();
+        Map<String, Object> loaded = buildMatrix(key);
+        if (invalidations.get() == generation) {
+            cache.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    private void evict(Collection<Long> productIds) {
+        Set<Long> changed = new HashSet<>(productIds);
+        invalidations.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.stream().anyMatch(changed::contains));
+    }
+
+    private void evictAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private Map<String, Object> buildMatrix(List<Long> productIds) {
+        Map<Long, Product> byId = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (Product product : productRepository.findByIds(productIds.toArray(Long[]::new))) {
+                byId.put(product.getId(), product);
+            }
+        }
+        List<Product> products = new ArrayList<>(byId.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : productIds) {
+            Product product = byId.get(id);
+            if (product == null) {
+                missingIds.add(id);
+            } else {
+                products.add(product);
+            }
+        }
+
+        List<Map<String, Object>> columns = new ArrayList<>(products.size());
+        for (Product product : products) {
+            Map<String, Object> column = new LinkedHashMap<>();
+            column.put("id", product.getId());
+            column.put("name", product.getName());
+            column.put("model", product.getModel());
+            column.put("imageUrl", product.getImageUrl());
+            column.put("ratingCount", product.getRatingCount());
+            columns.add(column);
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(numericRow("price", products, Product::getPrice));
+        rows.add(numericRow("stock", products, Product::getStock));
+        rows.add(valueRow("brand", products, Product::getBrandName));
+        rows.add(valueRow("category", products, Product::getCategoryName));
+        rows.add(numericRow("rating", products, Product::getRatingAverage));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("products", columns);
+        response.put("rows", rows);
+        response.put("missingIds", missingIds);
+        return response;
+    }
+
+    /** Fila con los ids de mínimo y máximo; los productos sin valor no cuentan. */
+    private Map<String, Object> numericRow(String attribute, List<Product> products,
+                                           Function<Product, ? extends Number> getter) {
+        Map<String, Object> row = valueRow(attribute, products, getter);
+        Double min = null;
+        Double max = null;
+        for (Product product : products) {
+            Number value = getter.apply(product);
+            if (value != null) {
+                min = (min == null) ? value.doubleValue() : Math.min(min, value.doubleValue());
+                max = (max == null) ? value.doubleValue() : Math.max(max, value.doubleValue());
+            }
+        }
+        List<Long> minProductIds = new ArrayList<>();
+        List<Long> maxProductIds = new ArrayList<>();
+        for (Product product : products) {
+            Number value = getter.apply(product);
+            if (value != null && value.doubleValue() == min) {
+                minProductIds.add(product.getId());
+            }
+            if (value != null && value.doubleValue() == max) {
+                maxProductIds.add(product.getId());
+            }
+        }
+        row.put("minProductIds", minProductIds);
+        row.put("maxProductIds", maxProductIds);
+        return row;
+    }
+
+    private Map<String, Object> valueRow(String attribute, List<Product> products, Function<Product, ?> getter) {
+        List<Object> values = new ArrayList<>(products.size());
+        for (Product product : products) {
+            values.add(getter.apply(product));
+        }
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("attribute", attribute);
+        row.put("values", values);
+        row.put("allEqual", new HashSet<>(values).size() <= 1);
+        return row;
+    }
+}
@@ -1,27 +1,54 @@
 package com.comparathor.service;
 
+import com.comparathor.event.ComparisonChangedEvent;
 import com.comparathor.exception.BadRequestException;
 import com.comparathor.exception.ResourceNotFoundException;
 import com.comparathor.model.Comparison;
+import com.comparathor.model.ComparisonProduct;
 import com.comparathor.model.Product;
 import com.comparathor.repository.ComparisonRepository;
 import com.comparathor.repository.ComparisonProductRepository;
+import com.comparathor.utils.FieldSelection;
+import com.comparathor.utils.TotalMode;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class ComparisonService {
+    private static final int MAX_BATCH_IDS = 200;
+    private static final FieldSelection<Comparison> COMPARISON_FIELDS = FieldSelection.<Comparison>builder()
+            .field("id", Comparison::getId)
+            .field("title", Comparison::getTitle)
+            .field("description", Comparison::getDescription)
+            .field("userId", Comparison::getUserId)
+            .field("createdAt", Comparison::getCreatedAt)
+            .field("updatedAt", Comparison::getUpdatedAt)
+            .field("productIds", Comparison::getProductIds)
+            .field("products", Comparison::getProducts)
+            .build();
     private final ComparisonRepository comparisonRepository;
     private final ComparisonProductRepository comparisonProductRepository;
+    private final CoOccurrenceService coOccurrenceService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ComparisonService(ComparisonRepository comparisonRepository, ComparisonProductRepository comparisonProductRepository) {
+    public ComparisonService(ComparisonRepository comparisonRepository,
+                             ComparisonProductRepository comparisonProductRepository,
+                             CoOccurrenceService coOccurrenceService,
+                             ApplicationEventPublisher eventPublisher) {
         this.comparisonRepository = comparisonRepository;
         this.comparisonProductRepository = comparisonProductRepository;
+        this.coOccurrenceService = coOccurrenceService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -33,45 +60,90 @@ public class ComparisonService {
         return comparison;
     }
 
+    /**
+     * Resuelve un lote de comparaciones en una sola consulta y las devuelve en
+     * el orden pedido, junto con los ids que no existen.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getComparisonsByIds(List<Long> ids) {
+        List<Long> requested = (ids == null) ? List.of() : ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (requested.isEmpty()) {
+            throw new BadRequestException("Se requiere al menos un id.");
+        }
+        if (requested.size() > MAX_BATCH_IDS) {
+            throw new BadRequestException("Solo se pueden consultar " + MAX_BATCH_IDS + " comparaciones por petición.");
+        }
+        Map<Long, Comparison> byId = new HashMap<>();
+        for (Comparison comparison : comparisonRepository.findByIds(requested.toArray(Long[]::new))) {
+            byId.put(comparison.getId(), comparison);
+        }
+
+        List<Comparison> comparisons = new ArrayList<>(byId.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            Comparison comparison = byId.get(id);
+            if (comparison == null) {
+                missingIds.add(id);
+                continue;
+            }
+            comparisons.add(comparison);
+        }
+        attachProducts(comparisons, true, true);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", comparisons);
+        response.put("missingIds", missingIds);
+        return response;
+    }
+
     @Transactional(readOnly = true)
     public Map<String, Object> getFilteredComparisons(
             Long userId, String title, LocalDateTime startDate, LocalDateTime endDate,
             int page, int size, String sortField, String sortOrder,
             String name, String category, Double price, Integer stock, String brand, String model,
-            List<Long> comparisonIds
+            List<Long> comparisonIds, TotalMode totalMode, String fields
     ) {
         size = Math.max(size, 10);
+        Set<String> selectedFields = COMPARISON_FIELDS.parse(fields);
 
-        int totalComparisons;
+        Integer totalComparisons;
         try {
-            totalComparisons = comparisonRepository.countFilteredComparisons(
-                    userId, title, startDate, endDate, name, category, price, stock, brand, model, comparisonIds
+            totalComparisons = totalMode.resolve(
+                    () -> comparisonRepository.countFilteredComparisons(
+                            userId, title, startDate, endDate, name, category, price, stock, brand, model, comparisonIds),
+                    () -> comparisonRepository.estimateFilteredComparisons(
+                            userId, title, startDate, endDate, name, category, price, stock, brand, model, comparisonIds)
             );
         } catch (Exception e) {
             throw new RuntimeException("Error al contar comparaciones", e);
         }
 
-        int offset = Math.max(0, (page * size >= totalComparisons) ? totalComparisons - size : page * size);
+        int offset = page * size;
+        if (totalMode == TotalMode.EXACT) {
+            offset = Math.max(0, (page * size >= totalComparisons) ? totalComparisons - size : page * size);
+        }
 
         List<Comparison> comparisons;
         try {
             comparisons = comparisonRepository.findFilteredComparisons(
                     userId, title, startDate, endDate, name, category, price, stock, brand, model,
-                    comparisonIds, size, offset, sortField, sortOrder
+                    comparisonIds, size, offset, sortField, sortOrder, selectedFields
             );
         } catch (Exception e) {
             throw new RuntimeException("Error al obtener comparaciones", e);
         }
 
-        for (Comparison comparison : comparisons) {
-            List<Long> productIds = comparisonProductRepository.findProductIdsByComparisonId(comparison.getId());
-            comparison.setProductIds(productIds);
-            comparison.setProducts(comparisonProductRepository.findProductsByComparisonId(comparison.getId()));
-        }
+        // Los productos solo se cargan si se han pedido.
+        boolean withProductIds = selectedFields == null || selectedFields.contains("productIds");
+        boolean withProducts = selectedFields == null || selectedFields.contains("products");
+        attachProducts(comparisons, withProductIds, withProducts);
 
         Map<String, Object> response = new HashMap<>();
-        response.put("content", comparisons);
-        response.put("total", totalComparisons);
+        response.put("content", COMPARISON_FIELDS.project(comparisons, selectedFields));
+        if (totalComparisons != null) {
+            response.put("total", totalComparisons);
+        }
+        response.put("totalMode", totalMode.getValue());
         response.put("page", page);
         response.put("size", size);
         return response;
@@ -92,6 +164,9 @@ public class ComparisonService {
         newComparison.setUpdatedAt(now);
         comparisonRepository.save(newComparison);
         comparisonProductRepository.insertMultipleComparisonProducts(newComparison.getId(), productIds);
+        Set<Long> members = new LinkedHashSet<>(productIds);
+        coOccurrenceService.recordAdded(members, members);
+        eventPublisher.publishEvent(new ComparisonChangedEvent(ComparisonChangedEvent.Type.CREATED, newComparison.getId()));
 
         newComparison.setProductIds(productIds);
 
@@ -114,16 +189,10 @@ public class ComparisonService {
                 existingComparison.getDescription(), productIds, existingComparison.getUpdatedAt());
 
         if (productIds != null) {
-            comparisonProductRepository.deleteByComparisonId(comparisonId);
-            comparisonProductRepository.insertMultipleComparisonProducts(comparisonId, productIds);
-            existingComparison.setProductIds(productIds);
-        }
-
-        if (productIds != null && !productIds.isEmpty()) {
-            comparisonProductRepository.deleteByComparisonId(comparisonId);
-            comparisonProductRepository.insertMultipleComparisonProducts(comparisonId, productIds);
+            syncProducts(comparisonId, productIds);
             existingComparison.setProductIds(productIds);
         }
+        eventPublisher.publishEvent(new ComparisonChangedEvent(ComparisonChangedEvent.Type.UPDATED, comparisonId));
 
 
         Map<String, Object> response = new HashMap<>();
@@ -131,22 +200,102 @@ public class ComparisonService {
         return response;
     }
 
+    /**
+     * Deja en comparison_products exactamente productIds tocando solo las filas
+     * que cambian, y ajusta los pares de productos comparados juntos. Se llama después del UPDATE de la comparación, cuyo bloqueo
+     * de fila serializa las ediciones concurrentes de la misma comparación.
+     */
+    private void syncProducts(Long comparisonId, List<Long> productIds) {
+        Set<Long> stored = new LinkedHashSet<>(comparisonProductRepository.findProductIdsByComparisonId(comparisonId));
+        Set<Long> wanted = new LinkedHashSet<>(productIds);
+        List<Long> added = wanted.stream().filter(id -> !stored.contains(id)).toList();
+        List<Long> removed = stored.stream().filter(id -> !wanted.contains(id)).toList();
+        if (!added.isEmpty() || !removed.isEmpty()) {
+            comparisonProductRepository.applyProductDiff(
+                    comparisonId, added.toArray(Long[]::new), removed.toArray(Long[]::new));
+            coOccurrenceService.recordRemoved(stored, removed);
+            coOccurrenceService.recordAdded(wanted, added);
+        }
+    }
+
     @Transactional
     public void deleteComparison(Long id) {
-        if (comparisonRepository.existsById(id) == 0) {
+        // El bloqueo impide que una edición o un borrado concurrentes descuadren los pares de productos.
+        if (comparisonRepository.lockById(id) == null) {
             throw new ResourceNotFoundException("❌ Comparación no encontrada con ID: " + id);
         }
+        Set<Long> members = new LinkedHashSet<>(comparisonProductRepository.findProductIdsByComparisonId(id));
+        coOccurrenceService.recordRemoved(members, members);
         comparisonProductRepository.deleteByComparisonId(id);
         comparisonRepository.deleteById(id);
+        eventPublisher.publishEvent(new ComparisonChangedEvent(ComparisonChangedEvent.Type.DELETED, id));
+    }
+
+    /**
+     * Borra las comparaciones de un usuario antes de borrarlo a él: el ON
+     * DELETE CASCADE de users no descontaría sus pares de product_co_occurrence.
+     */
+    @Transactional
+    public void deleteComparisonsByUserId(Long userId) {
+        List<Comparison> comparisons = comparisonRepository.findByUserId(userId);
+        // Mismo bloqueo que deleteComparison, antes de leer los productos de cada una.
+        comparisons.forEach(comparison -> comparisonRepository.lockById(comparison.getId()));
+        attachProducts(comparisons, true, false);
+        for (Comparison comparison : comparisons) {
+            Set<Long> members = new LinkedHashSet<>(comparison.getProductIds());
+            coOccurrenceService.recordRemoved(members, members);
+            comparisonProductRepository.deleteByComparisonId(comparison.getId());
+            comparisonRepository.deleteById(comparison.getId());
+            eventPublisher.publishEvent(new ComparisonChangedEvent(ComparisonChangedEvent.Type.DELETED, comparison.getId()));
+        }
     }
 
     @Transactional(readOnly = true)
     public List<Comparison> getComparisonsByUserId(Long userId) {
         List<Comparison> comparisons = comparisonRepository.findByUserId(userId);
-        comparisons.forEach(comparison -> comparison.setProductIds(comparisonProductRepository.findProductIdsByComparisonId(comparison.getId())));
+        attachProducts(comparisons, true, false);
         return comparisons;
     }
 
+    /**
+     * Carga los productos de todas las comparaciones con una sola consulta por
+     * página en lugar de una o dos por comparación. Si se piden los productos,
+     * los ids salen de las mismas filas.
+     */
+    private void attachProducts(List<Comparison> comparisons, boolean withProductIds, boolean withProducts) {
+        if (comparisons.isEmpty() || (!withProductIds && !withProducts)) {
+            return;
+        }
+        Long[] comparisonIds = comparisons.stream().map(Comparison::getId).toArray(Long[]::new);
+        Map<Long, List<Long>> productIds = new HashMap<>();
+        Map<Long, List<Map<String, Object>>> products = new HashMap<>();
+        if (withProducts) {
+            for (Map<String, Object> row : comparisonProductRepository.findProductsByComparisonIds(comparisonIds)) {
+                Long comparisonId = ((Number) row.remove("comparison_id")).longValue();
+                productIds.computeIfAbsent(comparisonId, id -> new ArrayList<>()).add(((Number) row.get("id")).longValue());
+                products.computeIfAbsent(comparisonId, id -> new ArrayList<>()).add(row);
+            }
+        } else {
+            for (ComparisonProduct relation : comparisonProductRepository.findByComparisonIds(comparisonIds)) {
+                productIds.computeIfAbsent(relation.getComparisonId(), id -> new ArrayList<>()).add(relation.getProductId());
+            }
+        }
+        for (Comparison comparison : comparisons) {
+            if (withProductIds) {
+                comparison.setProductIds(productIds.getOrDefault(comparison.getId(), new ArrayList<>()));
+            }
+            if (withProducts) {
+                comparison.setProducts(asProducts(products.getOrDefault(comparison.getId(), new ArrayList<>())));
+            }
+        }
+    }
+
+    /** Mismas filas en snake_case que devuelve findProductsByComparisonId y que consume el frontend. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<Product> asProducts(List<Map<String, Object>> rows) {
+        return (List) rows;
+    }
+
     @Transactional(readOnly = true)
     public List<Product> getProductsByComparisonId(Long comparisonId) {
         if (comparisonId == null || comparisonId <= 0) {
@@ -0,0 +1,176 @@
+package com.comparathor.service;
+
+import com.comparathor.event.BrandChangedEvent;
+import com.comparathor.event.CategoryChangedEvent;
+import com.comparathor.event.ProductChangedEvent;
+import com.comparathor.event.RatingChangedEvent;
+import com.comparathor.exception.ResourceNotFoundException;
+import com.comparathor.model.Brand;
+import com.comparathor.model.Category;
+import com.comparathor.model.Product;
+import com.comparathor.model.Rating;
+import com.comparathor.model.RatingSummary;
+import com.comparathor.repository.BrandRepository;
+import com.comparathor.repository.CategoryRepository;
+import com.comparathor.repository.ProductRepository;
+import com.comparathor.repository.RatingRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Ficha de producto (GET /api/products/{id}/detail): producto, marca,
+ * categoría, resumen de valoraciones y últimas reseñas en una sola respuesta.
+ * El producto, el resumen y las reseñas se consultan en paralelo; marca y
+ * categoría en cuanto se conoce el producto. Cada ficha se cachea por producto
+ * y se invalida con los cambios de productos, valoraciones, marcas y
+ * categorías.
+ */
+@Service
+public class ProductDetailService {
+    public static final int MAX_REVIEWS = 20;
+
+    private final ProductRepository productRepository;
+    private final BrandRepository brandRepository;
+    private final CategoryRepository categoryRepository;
+    private final RatingRepository ratingRepository;
+    private final Executor executor;
+    private final Cache<Key, Map<String, Object>> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductDetailService(
+            ProductRepository productRepository,
+            BrandRepository brandRepository,
+            CategoryRepository categoryRepository,
+            RatingRepository ratingRepository,
+            @Qualifier("productDetailExecutor") Executor executor,
+            MeterRegistry meterRegistry,
+            @Value("${comparathor.products.detail-cache.max-size:2000}") long maxSize,
+            @Value("${comparathor.products.detail-cache.ttl:PT10M}") Duration ttl) {
+        this.productRepository = productRepository;
+        this.brandRepository = brandRepository;
+        this.categoryRepository = categoryRepository;
+        this.ratingRepository = ratingRepository;
+        this.executor = executor;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products.detail");
+    }
+
+    public Map<String, Object> getProductDetail(Long productId, int reviews) {
+        Key key = new Key(productId, Math.max(0, Math.min(reviews, MAX_REVIEWS)));
+        Map<String, Object> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        // Igual que en ProductListCache: no se guarda lo leído mientras se confirmaba un cambio.
+        long generation = invalidations.get();
+        Map<String, Object> loaded = loadDetail(key);
+        if (invalidations.get() == generation) {
+            cache.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.getProductIds());
+    }
+
+    @TransactionalEventListener
+    public void onRatingChanged(RatingChangedEvent event) {
+        evict(List.of(event.getProductId()));
+    }
+
+    @TransactionalEventListener
+    public void onBrandChanged(BrandChangedEvent event) {
+        if (event.getType() != BrandChangedEvent.Type.CREATED) {
+            evictWhere(product -> event.getBrandId().equals(product.getBrandId()));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() != CategoryChangedEvent.Type.CREATED) {
+            evictWhere(product -> event.getCategoryId().equals(product.getCategoryId()));
+        }
+    }
+
+    /** Fichas cuyo producto cumple la condición, p. ej. las de una marca renombrada. */
+    private void evictWhere(Predicate<Product> condition) {
+        invalidations.incrementAndGet();
+        cache.asMap().values().removeIf(detail -> condition.test((Product) detail.get("product")));
+    }
+
+    private void evict(List<Long> productIds) {
+        invalidations.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> productIds.contains(key.productId()));
+    }
+
+    private Map<String, Object> loadDetail(Key key) {
+        CompletableFuture<Product> productFuture = async(() -> {
+            List<Product> products = productRepository.findByIds(new Long[]{key.productId()});
+            if (products.isEmpty()) {
+                throw new ResourceNotFoundException("Producto no encontrado con ID: " + key.productId());
+            }
+            return products.getFirst();
+        });
+        CompletableFuture<RatingSummary> summaryFuture = async(() ->
+                ratingRepository.findSummaryByProductId(key.productId()));
+        CompletableFuture<List<Rating>> reviewsFuture = key.reviews() == 0
+                ? CompletableFuture.completedFuture(List.of())
+                : async(() -> ratingRepository.findLatestByProductId(key.productId(), key.reviews()));
+        CompletableFuture<Brand> brandFuture = productFuture.thenCompose(product ->
+                product.getBrandId() == null ? CompletableFuture.<Brand>completedFuture(null)
+                        : async(() -> brandRepository.findById(product.getBrandId()).orElse(null)));
+        CompletableFuture<Category> categoryFuture = productFuture.thenCompose(product ->
+                product.getCategoryId() == null ? CompletableFuture.<Category>completedFuture(null)
+                        : async(() -> categoryRepository.findById(product.getCategoryId()).orElse(null)));
+
+        try {
+            CompletableFuture.allOf(productFuture, summaryFuture, reviewsFuture, brandFuture, categoryFuture).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        RatingSummary summary = Optional.ofNullable(summaryFuture.join())
+                .orElseGet(() -> new RatingSummary(key.productId(), 0, 0.0, null, 0, 0, 0, 0, 0));
+        Map<String, Object> response = new HashMap<>();
+        response.put("product", productFuture.join());
+        response.put("brand", brandFuture.join());
+        response.put("category", categoryFuture.join());
+        response.put("ratingSummary", summary);
+        response.put("latestReviews", reviewsFuture.join());
+        return response;
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, executor);
+    }
+
+    private record Key(Long productId, int reviews) {
+    }
+}
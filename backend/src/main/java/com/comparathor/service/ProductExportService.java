@@ -0,0 +1,133 @@
+package com.comparathor.service;
+
+import com.comparathor.exception.BadRequestException;
+import com.comparathor.model.Product;
+import com.comparathor.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Exportación del catálogo completo para partners. Las filas se leen con un
+ * cursor de MyBatis y se escriben según llegan, así que la memoria usada no
+ * depende del tamaño del catálogo.
+ */
+@Service
+public class ProductExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductExportService.class);
+    private static final int FLUSH_EVERY = 1000;
+    private static final String[] CSV_HEADER = {
+            "id", "name", "model", "brandId", "brandName", "categoryId", "categoryName",
+            "price", "stock", "description", "imageUrl", "createdAt", "updatedAt", "ratingCount", "ratingAverage"
+    };
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format from(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (Exception e) {
+                throw new BadRequestException("Formato de exportación no soportado. Valores permitidos: ndjson, csv.");
+            }
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    public ProductExportService(ProductRepository productRepository, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Escribe todos los productos en el formato indicado. El cursor necesita la
+     * transacción abierta mientras se recorre.
+     */
+    @Transactional(readOnly = true)
+    public int exportProducts(Format format, OutputStream outputStream) {
+        long start = System.currentTimeMillis();
+        int rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        try (Cursor<Product> cursor = productRepository.exportProducts()) {
+            if (format == Format.CSV) {
+                writer.write(String.join(",", CSV_HEADER));
+                writer.write('\n');
+            }
+            for (Product product : cursor) {
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, product);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(product));
+                    writer.write('\n');
+                }
+                if (++rows % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al exportar el catálogo de productos.", e);
+        }
+        logger.info("Exportados {} productos en formato {} en {} ms",
+                rows, format.getExtension(), System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private void writeCsvRow(Writer writer, Product product) throws IOException {
+        Object[] values = {
+                product.getId(), product.getName(), product.getModel(), product.getBrandId(), product.getBrandName(),
+                product.getCategoryId(), product.getCategoryName(), product.getPrice(), product.getStock(),
+                product.getDescription(), product.getImageUrl(), product.getCreatedAt(), product.getUpdatedAt(),
+                product.getRatingCount(), product.getRatingAverage()
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvValue(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    private String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,168 @@
+package com.comparathor.service;
+
+import com.comparathor.event.BrandChangedEvent;
+import com.comparathor.event.CategoryChangedEvent;
+import com.comparathor.event.ProductChangedEvent;
+import com.comparathor.model.FacetCount;
+import com.comparathor.model.ProductFilter;
+import com.comparathor.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class ProductFacetService {
+    private static final double[] PRICE_BOUNDS = {50, 100, 250, 500, 1000, 2000};
+    private static final int[] STOCK_BOUNDS = {0, 10, 50};
+
+    private final ProductRepository productRepository;
+    private final Cache<ProductFilter, Map<String, Object>> facetCache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductFacetService(
+            ProductRepository productRepository,
+            MeterRegistry meterRegistry,
+            @Value("${comparathor.products.facet-cache.max-size:500}") long maxSize,
+            @Value("${comparathor.products.facet-cache.ttl:PT10M}") Duration ttl) {
+        this.productRepository = productRepository;
+        this.facetCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, facetCache, "products.facets");
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getFacets(ProductFilter filter) {
+        Map<String, Object> cached = facetCache.getIfPresent(filter);
+        if (cached != null) {
+            return cached;
+        }
+        // Igual que en ProductListCache: no se guarda lo leído mientras se confirmaba un cambio.
+        long generation = invalidations.get();
+        Map<String, Object> loaded = computeFacets(filter);
+        if (invalidations.get() == generation) {
+            facetCache.put(filter, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Solo se descartan las entradas cuyo filtro de categoría/marca puede verse
+     * afectado por los productos modificados.
+     */
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidations.incrementAndGet();
+        facetCache.asMap().keySet().removeIf(filter -> event.affects(filter.getCategoryId(), filter.getBrandId()));
+    }
+
+    /** Las facetas llevan los nombres de marcas y categorías; una recién creada aún no tiene productos. */
+    @TransactionalEventListener
+    public void onBrandChanged(BrandChangedEvent event) {
+        if (event.getType() != BrandChangedEvent.Type.CREATED) {
+            evictAll();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() != CategoryChangedEvent.Type.CREATED) {
+            evictAll();
+        }
+    }
+
+    private void evictAll() {
+        invalidations.incrementAndGet();
+        facetCache.invalidateAll();
+    }
+
+    private Map<String, Object> computeFacets(ProductFilter filter) {
+        List<Map<String, Object>> categories = new ArrayList<>();
+        List<Map<String, Object>> brands = new ArrayList<>();
+        List<Map<String, Object>> priceRanges = new ArrayList<>();
+        List<Map<String, Object>> stockBands = new ArrayList<>();
+        int total = 0;
+
+        for (FacetCount facet : productRepository.findFacetCounts(filter)) {
+            switch (facet.getFacet()) {
+                case "category" -> {
+                    categories.add(namedCount(facet));
+                    total += facet.getCount();
+                }
+                case "brand" -> brands.add(namedCount(facet));
+                case "price" -> {
+                    if (facet.getValue() != null) {
+                        priceRanges.add(rangeCount(facet, priceRange(facet.getValue().intValue())));
+                    }
+                }
+                case "stock" -> {
+                    if (facet.getValue() != null) {
+                        stockBands.add(rangeCount(facet, stockRange(facet.getValue().intValue())));
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        Comparator<Map<String, Object>> byCount =
+                Comparator.comparing((Map<String, Object> m) -> (Integer) m.get("count")).reversed();
+        Comparator<Map<String, Object>> byBucket = Comparator.comparing(m -> (Integer) m.get("bucket"));
+        categories.sort(byCount);
+        brands.sort(byCount);
+        priceRanges.sort(byBucket);
+        stockBands.sort(byBucket);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("categories", categories);
+        response.put("brands", brands);
+        response.put("priceRanges", priceRanges);
+        response.put("stockBands", stockBands);
+        response.put("total", total);
+        return response;
+    }
+
+    private Map<String, Object> namedCount(FacetCount facet) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("id", facet.getValue());
+        entry.put("name", facet.getName());
+        entry.put("count", facet.getCount());
+        return entry;
+    }
+
+    private Map<String, Object> rangeCount(FacetCount facet, Number[] range) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("bucket", facet.getValue().intValue());
+        entry.put("min", range[0]);
+        entry.put("max", range[1]);
+        entry.put("count", facet.getCount());
+        return entry;
+    }
+
+    // width_bucket devuelve 0 por debajo del primer límite y PRICE_BOUNDS.length por encima del último
+    private Number[] priceRange(int bucket) {
+        Double min = bucket == 0 ? null : PRICE_BOUNDS[bucket - 1];
+        Double max = bucket >= PRICE_BOUNDS.length ? null : PRICE_BOUNDS[bucket];
+        return new Number[]{min, max};
+    }
+
+    private Number[] stockRange(int band) {
+        Integer min = band == 0 ? null : STOCK_BOUNDS[band - 1] + 1;
+        Integer max = band >= STOCK_BOUNDS.length ? null : STOCK_BOUNDS[band];
+        return new Number[]{min, max};
+    }
+}
@@ -0,0 +1,129 @@
+package com.comparathor.service;
+
+import com.comparathor.event.BrandChangedEvent;
+import com.comparathor.event.CategoryChangedEvent;
+import com.comparathor.event.ProductChangedEvent;
+import com.comparathor.event.RatingChangedEvent;
+import com.comparathor.model.Product;
+import com.comparathor.model.ProductFilter;
+import com.comparathor.utils.TotalMode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché de páginas de GET /api/products por combinación normalizada de
+ * filtros, paginación y orden. Las métricas se publican como cache.* con
+ * cache=products.list en /actuator/metrics.
+ */
+@Component
+public class ProductListCache {
+    private final Cache<Key, Map<String, Object>> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductListCache(
+            MeterRegistry meterRegistry,
+            @Value("${comparathor.products.list-cache.max-size:1000}") long maxSize,
+            @Value("${comparathor.products.list-cache.ttl:PT2M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products.list");
+    }
+
+    /**
+     * Devuelve la página cacheada o la carga. Si durante la carga se confirma
+     * un cambio de productos, el resultado se devuelve pero no se guarda, ya
+     * que podría haberse leído antes del commit.
+     */
+    public Map<String, Object> get(Key key, Supplier<Map<String, Object>> loader) {
+        Map<String, Object> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = invalidations.get();
+        Map<String, Object> loaded = loader.get();
+        if (invalidations.get() == generation) {
+            cache.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidations.incrementAndGet();
+        cache.asMap().keySet().removeIf(key ->
+                event.affects(key.filter().getCategoryId(), key.filter().getBrandId()));
+    }
+
+    /**
+     * Una valoración no cambia qué productos cumplen el filtro: solo se
+     * descartan las páginas ordenadas por valoración y las que muestran el
+     * resumen del producto afectado.
+     */
+    @TransactionalEventListener
+    public void onRatingChanged(RatingChangedEvent event) {
+        invalidations.incrementAndGet();
+        cache.asMap().entrySet().removeIf(entry -> entry.getKey().sortsByRating()
+                || (entry.getKey().showsRatings() && containsProduct(entry.getValue(), event.getProductId())));
+    }
+
+    /** Las páginas llevan brandName y categoryName; las marcas y categorías casi no cambian. */
+    @TransactionalEventListener
+    public void onBrandChanged(BrandChangedEvent event) {
+        if (event.getType() != BrandChangedEvent.Type.CREATED) {
+            evictAll();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() != CategoryChangedEvent.Type.CREATED) {
+            evictAll();
+        }
+    }
+
+    private void evictAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private boolean containsProduct(Map<String, Object> page, Long productId) {
+        if (!(page.get("content") instanceof List<?> content)) {
+            return true;
+        }
+        for (Object item : content) {
+            Object id = item instanceof Product product ? product.getId()
+                    : item instanceof Map<?, ?> projected ? projected.get("id") : null;
+            if (productId.equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public record Key(ProductFilter filter, int page, int size, String sortField, String sortOrder,
+                      TotalMode totalMode, Set<String> fields) {
+
+        boolean sortsByRating() {
+            return "ratingCount".equals(sortField) || "ratingAverage".equals(sortField);
+        }
+
+        boolean showsRatings() {
+            return fields == null || fields.contains("ratingCount") || fields.contains("ratingAverage");
+        }
+    }
+}
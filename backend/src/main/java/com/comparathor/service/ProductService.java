@@ -1,20 +1,36 @@
 package com.comparathor.service;
 
+import com.comparathor.catalog.CatalogPage;
+import com.comparathor.catalog.ColumnarProductCatalog;
+import com.comparathor.event.ProductChangedEvent;
 import com.comparathor.exception.BadRequestException;
 import com.comparathor.exception.ResourceNotFoundException;
 import com.comparathor.model.Product;
+import com.comparathor.model.ProductFilter;
 import com.comparathor.repository.BrandRepository;
 import com.comparathor.repository.CategoryRepository;
 import com.comparathor.repository.ProductRepository;
+import com.comparathor.search.ProductSearchIndex;
+import com.comparathor.search.ProductSuggester;
+import com.comparathor.search.SearchResult;
+import com.comparathor.search.TopRatedLeaderboards;
+import com.comparathor.utils.FieldSelection;
 import com.comparathor.utils.FileMultipartUtil;
+import com.comparathor.utils.KeysetCursor;
+import com.comparathor.utils.TotalMode;
 import io.jsonwebtoken.io.IOException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.ibatis.javassist.NotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
@@ -34,38 +50,380 @@ import java.util.zip.ZipInputStream;
 @RequiredArgsConstructor
 public class ProductService {
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
+    private static final int MAX_SEARCH_RESULTS = 1000;
+    public static final int MAX_BATCH_IDS = 500;
+    public static final FieldSelection<Product> PRODUCT_FIELDS = FieldSelection.<Product>builder()
+            .field("id", Product::getId)
+            .field("name", Product::getName)
+            .field("categoryId", Product::getCategoryId)
+            .field("categoryName", Product::getCategoryName)
+            .field("brandId", Product::getBrandId)
+            .field("brandName", Product::getBrandName)
+            .field("price", Product::getPrice)
+            .field("stock", Product::getStock)
+            .field("description", Product::getDescription)
+            .field("model", Product::getModel)
+            .field("imageUrl", Product::getImageUrl)
+            .field("createdBy", Product::getCreatedBy)
+            .field("createdAt", Product::getCreatedAt)
+            .field("updatedAt", Product::getUpdatedAt)
+            .field("ratingCount", Product::getRatingCount)
+            .field("ratingAverage", Product::getRatingAverage)
+            .build();
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final BrandRepository brandRepository;
     private final CloudinaryService cloudinaryService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggester productSuggester;
+    private final TopRatedLeaderboards topRatedLeaderboards;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductListCache productListCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<ColumnarProductCatalog> columnarCatalog;
+    private final MeterRegistry meterRegistry;
 
-    @Transactional(readOnly = true)
     public Map<String, Object> getFilteredProducts(
             String search,
             String name,
             Long categoryId, Long brandId, Double minPrice, Double maxPrice,
             Integer minStock, Integer maxStock, LocalDateTime startDate,
             LocalDateTime endDate, int page, int size,
-            String sortField, String sortOrder) {
+            String sortField, String sortOrder, TotalMode totalMode, String fields) {
 
-        size = (size <= 0) ? 10 : size;
+        int pageSize = (size <= 0) ? 10 : size;
+        Set<String> selectedFields = PRODUCT_FIELDS.parse(fields);
+        ProductFilter filter = ProductFilter.of(search, categoryId, brandId, minPrice, maxPrice,
+                minStock, maxStock, startDate, endDate);
+        ProductListCache.Key key = new ProductListCache.Key(filter, page, pageSize, sortField, sortOrder, totalMode,
+                selectedFields);
+        return productListCache.get(key, () -> {
+            ColumnarProductCatalog catalog = columnarCatalog.getIfAvailable();
+            if (catalog != null && catalog.canServe(filter, sortField)) {
+                return listQueryTimer("columnar").record(() -> transactionTemplate.execute(status ->
+                        loadFromCatalog(catalog, filter, page, pageSize, sortField, sortOrder, totalMode, selectedFields)));
+            }
+            return listQueryTimer("sql").record(() -> transactionTemplate.execute(status -> loadFilteredProducts(
+                    search, name, categoryId, brandId, minPrice, maxPrice, minStock, maxStock,
+                    startDate, endDate, page, pageSize, sortField, sortOrder, totalMode, selectedFields)));
+        });
+    }
 
-        int totalProducts = productRepository.countFilteredProducts(
-                search,
-                name, categoryId, brandId, minPrice, maxPrice, minStock, maxStock, startDate, endDate);
-        int offset = (page * size >= totalProducts) ? Math.max(0, totalProducts - size) : page * size;
+    private Timer listQueryTimer(String engine) {
+        return Timer.builder("products.list.query")
+                .description("Tiempo de resolución de GET /api/products sin caché")
+                .tag("engine", engine)
+                .register(meterRegistry);
+    }
+
+    /**
+     * El catálogo columnar da el total exacto sin coste adicional, así que solo
+     * se omite con totalMode=none.
+     */
+    private Map<String, Object> loadFromCatalog(ColumnarProductCatalog catalog, ProductFilter filter,
+                                                int page, int size, String sortField, String sortOrder,
+                                                TotalMode totalMode, Set<String> fields) {
+        CatalogPage result = catalog.query(filter, sortField, sortOrder, page, size, totalMode != TotalMode.NONE);
+        List<Product> products = findProductsInOrder(Arrays.stream(result.productIds()).boxed().toList());
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", PRODUCT_FIELDS.project(products, fields));
+        if (totalMode != TotalMode.NONE) {
+            response.put("total", result.total());
+        }
+        response.put("totalMode", totalMode == TotalMode.NONE ? totalMode.getValue() : TotalMode.EXACT.getValue());
+        response.put("page", page);
+        response.put("size", size);
+        return response;
+    }
+
+    private Map<String, Object> loadFilteredProducts(
+            String search,
+            String name,
+            Long categoryId, Long brandId, Double minPrice, Double maxPrice,
+            Integer minStock, Integer maxStock, LocalDateTime startDate,
+            LocalDateTime endDate, int page, int size,
+            String sortField, String sortOrder, TotalMode totalMode, Set<String> fields) {
+        Integer totalProducts = totalMode.resolve(
+                () -> productRepository.countFilteredProducts(
+                        search,
+                        name, categoryId, brandId, minPrice, maxPrice, minStock, maxStock, startDate, endDate),
+                () -> productRepository.estimateFilteredProducts(
+                        search,
+                        name, categoryId, brandId, minPrice, maxPrice, minStock, maxStock, startDate, endDate));
+        int offset = page * size;
+        if (totalMode == TotalMode.EXACT) {
+            offset = (page * size >= totalProducts) ? Math.max(0, totalProducts - size) : page * size;
+        }
         List<Product> products = productRepository.findFilteredProducts(
                 search,
                 name, categoryId, brandId, minPrice, maxPrice, minStock, maxStock,
-                startDate, endDate, size, offset, sortField, sortOrder);
+                startDate, endDate, size, offset, sortField, sortOrder, fields);
         Map<String, Object> response = new HashMap<>();
-        response.put("content", products);
-        response.put("total", totalProducts);
+        response.put("content", PRODUCT_FIELDS.project(products, fields));
+        if (totalProducts != null) {
+            response.put("total", totalProducts);
+        }
+        response.put("totalMode", totalMode.getValue());
         response.put("page", page);
         response.put("size", size);
         return response;
     }
 
+    @Transactional(readOnly = true)
+    public Map<String, Object> getProductsByCursor(
+            String search,
+            String name,
+            Long categoryId, Long brandId, Double minPrice, Double maxPrice,
+            Integer minStock, Integer maxStock, LocalDateTime startDate,
+            LocalDateTime endDate, String cursor, int size,
+            String sortField, String sortOrder, TotalMode totalMode, String fields) {
+
+        size = (size <= 0) ? 10 : size;
+        sortField = normalizeSortField(sortField);
+        sortOrder = "asc".equalsIgnoreCase(sortOrder) ? "asc" : "desc";
+
+        Set<String> selectedFields = PRODUCT_FIELDS.parse(fields);
+        Set<String> queryFields = selectedFields;
+        if (selectedFields != null && !selectedFields.contains(sortField)) {
+            // El siguiente cursor necesita el valor del campo de orden de la última fila.
+            queryFields = new LinkedHashSet<>(selectedFields);
+            queryFields.add(sortField);
+        }
+
+        Object afterValue = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+            if (!keysetCursor.matches(sortField, sortOrder)) {
+                throw new BadRequestException("El cursor no corresponde a la ordenación solicitada.");
+            }
+            afterId = keysetCursor.getId();
+            afterValue = parseSortValue(sortField, keysetCursor.getValue());
+        }
+
+        List<Product> products = productRepository.findFilteredProductsAfter(
+                search,
+                name, categoryId, brandId, minPrice, maxPrice, minStock, maxStock,
+                startDate, endDate, afterValue, afterId, size + 1, sortField, sortOrder, queryFields);
+
+        boolean hasMore = products.size() > size;
+        if (hasMore) {
+            products = new ArrayList<>(products.subList(0, size));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            Product last = products.get(products.size() - 1);
+            nextCursor = new KeysetCursor(sortField, sortOrder, sortValueOf(sortField, last), last.getId()).encode();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", PRODUCT_FIELDS.project(products, selectedFields));
+        response.put("size", size);
+        response.put("sortField", sortField);
+        response.put("sortOrder", sortOrder);
+        response.put("hasMore", hasMore);
+        response.put("nextCursor", nextCursor);
+        Integer total = totalMode.resolve(
+                () -> productRepository.countFilteredProducts(
+                        search,
+                        name, categoryId, brandId, minPrice, maxPrice, minStock, maxStock, startDate, endDate),
+                () -> productRepository.estimateFilteredProducts(
+                        search,
+                        name, categoryId, brandId, minPrice, maxPrice, minStock, maxStock, startDate, endDate));
+        if (total != null) {
+            response.put("total", total);
+        }
+        response.put("totalMode", totalMode.getValue());
+        return response;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> searchProducts(String query, boolean fuzzy, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Se requiere un texto de búsqueda.");
+        }
+        size = (size <= 0) ? 10 : size;
+        page = Math.max(page, 0);
+        int limit = (page + 1) * size;
+        if (limit > MAX_SEARCH_RESULTS) {
+            throw new BadRequestException("Solo se pueden consultar los primeros " + MAX_SEARCH_RESULTS + " resultados.");
+        }
+
+        SearchResult result = fuzzy
+                ? productSearchIndex.searchFuzzy(query, limit)
+                : productSearchIndex.search(query, limit);
+        List<Long> ids = result.productIds();
+        List<Long> pageIds = ids.subList(Math.min(page * size, ids.size()), ids.size());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", findProductsInOrder(pageIds));
+        response.put("total", result.total());
+        response.put("page", page);
+        response.put("size", size);
+        response.put("query", query);
+        if (result.didYouMean() != null) {
+            response.put("didYouMean", result.didYouMean());
+        }
+        return response;
+    }
+
+    public Map<String, Object> suggestProducts(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new BadRequestException("Se requiere un prefijo.");
+        }
+        limit = (limit <= 0) ? 10 : Math.min(limit, ProductSuggester.MAX_SUGGESTIONS);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("prefix", prefix);
+        response.put("suggestions", productSuggester.suggest(prefix, limit));
+        return response;
+    }
+
+    @Transactional(readOnly = true)
+    public Product getProductById(Long productId) {
+        List<Product> products = productRepository.findByIds(new Long[]{productId});
+        if (products.isEmpty()) {
+            throw new ResourceNotFoundException("Producto no encontrado con ID: " + productId);
+        }
+        return products.get(0);
+    }
+
+    /**
+     * Resuelve un lote de ids en una sola consulta y devuelve los productos en
+     * el orden pedido, junto con los ids que no existen.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getProductsByIds(List<Long> ids) {
+        List<Long> requested = (ids == null) ? List.of() : ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (requested.isEmpty()) {
+            throw new BadRequestException("Se requiere al menos un id.");
+        }
+        if (requested.size() > MAX_BATCH_IDS) {
+            throw new BadRequestException("Solo se pueden consultar " + MAX_BATCH_IDS + " productos por petición.");
+        }
+        List<Product> products = findProductsInOrder(requested);
+        Set<Long> found = new HashSet<>();
+        products.forEach(product -> found.add(product.getId()));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", products);
+        response.put("missingIds", requested.stream().filter(id -> !found.contains(id)).toList());
+        return response;
+    }
+
+    /**
+     * Mejor valorados por media bayesiana, de una categoría o de todo el
+     * catálogo. El orden sale de los rankings en memoria; solo se consultan
+     * las filas de los productos devueltos.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getTopRatedProducts(Long categoryId, int limit) {
+        int size = Math.max(1, Math.min(limit, TopRatedLeaderboards.MAX_LIMIT));
+        List<TopRatedLeaderboards.Scored> ranking = topRatedLeaderboards.top(categoryId, size);
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : findProductsInOrder(ranking.stream().map(TopRatedLeaderboards.Scored::productId).toList())) {
+            byId.put(product.getId(), product);
+        }
+        List<Map<String, Object>> content = new ArrayList<>(ranking.size());
+        for (TopRatedLeaderboards.Scored scored : ranking) {
+            Product product = byId.get(scored.productId());
+            if (product != null) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("product", product);
+                entry.put("score", scored.score());
+                content.add(entry);
+            }
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", content);
+        response.put("categoryId", categoryId);
+        response.put("limit", size);
+        response.put("globalMean", topRatedLeaderboards.getGlobalMean());
+        response.put("priorWeight", topRatedLeaderboards.getPriorWeight());
+        return response;
+    }
+
+    private List<Product> findProductsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : productRepository.findByIds(ids.toArray(Long[]::new))) {
+            byId.put(product.getId(), product);
+        }
+        List<Product> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = byId.get(id);
+            if (product != null) {
+                ordered.add(product);
+            }
+        }
+        return ordered;
+    }
+
+    private String normalizeSortField(String sortField) {
+        if (sortField == null) {
+            return "id";
+        }
+        return switch (sortField) {
+            case "name", "price", "stock", "createdAt", "ratingCount", "ratingAverage" -> sortField;
+            default -> "id";
+        };
+    }
+
+    private Object parseSortValue(String sortField, String value) {
+        if ("id".equals(sortField)) {
+            return null;
+        }
+        if (value == null) {
+            // Cursores emitidos antes de sustituir los NULL: equivalen al valor de relleno.
+            return keysetNullValue(sortField);
+        }
+        try {
+            return switch (sortField) {
+                case "price" -> Double.valueOf(value);
+                case "stock" -> Integer.valueOf(value);
+                case "createdAt" -> LocalDateTime.parse(value);
+                case "ratingCount" -> Integer.valueOf(value);
+                case "ratingAverage" -> Double.valueOf(value);
+                default -> value;
+            };
+        } catch (Exception e) {
+            throw new BadRequestException("Cursor inválido.");
+        }
+    }
+
+    private String sortValueOf(String sortField, Product product) {
+        Object value = switch (sortField) {
+            case "name" -> product.getName();
+            case "price" -> product.getPrice();
+            case "stock" -> product.getStock();
+            case "createdAt" -> product.getCreatedAt();
+            case "ratingCount" -> product.getRatingCount();
+            // Igual que el ORDER BY: sin valoraciones cuenta como 0
+            case "ratingAverage" -> product.getRatingAverage() != null ? product.getRatingAverage() : 0.0;
+            default -> null;
+        };
+        if (value == null) {
+            value = keysetNullValue(sortField);
+        }
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Valor con el que ProductKeysetColumn sustituye los NULL. LocalDateTime.MIN
+     * se envía a PostgreSQL como -infinity.
+     */
+    private Object keysetNullValue(String sortField) {
+        return switch (sortField) {
+            case "name" -> "";
+            case "price", "ratingAverage" -> 0.0;
+            case "stock", "ratingCount" -> 0;
+            case "createdAt" -> LocalDateTime.MIN;
+            default -> null;
+        };
+    }
+
     @Transactional
     public Map<String, Object> createProduct(
             String name, Long categoryId, Double price, Integer stock,
@@ -95,6 +453,7 @@ public class ProductService {
         product.setUpdatedAt(now);
         product.setCreatedBy(createdBy);
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.created(List.of(product)));
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Producto registrado con éxito.");
         response.put("product", product);
@@ -107,6 +466,8 @@ public class ProductService {
         if (product == null) {
             throw new BadRequestException("El producto con ID " + productId + " no existe.");
         }
+        Long previousCategoryId = product.getCategoryId();
+        Long previousBrandId = product.getBrandId();
 
         if (request.containsKey("name")) {
             String newName = request.get("name");
@@ -151,6 +512,7 @@ public class ProductService {
         product.setUpdatedAt(LocalDateTime.now());
         product.setCreatedBy(updatedBy);
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(product, previousCategoryId, previousBrandId));
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Producto actualizado con éxito.");
@@ -174,6 +536,7 @@ public class ProductService {
             }
         }
         productRepository.deleteById(productId);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(product));
     }
 
     @Transactional
@@ -228,6 +591,7 @@ public class ProductService {
 
             if (!productsToUpdate.isEmpty()) {
                 productRepository.updateAll(productsToUpdate);
+                eventPublisher.publishEvent(ProductChangedEvent.updated(productsToUpdate));
             }
             String message = productsToUpdate.isEmpty() ? "No se actualizaron productos." : "Imágenes subidas y actualizadas exitosamente.";
             return Map.of(
@@ -319,6 +683,7 @@ public class ProductService {
         }
         if (!productsToSave.isEmpty()) {
             productRepository.saveAll(productsToSave);
+            eventPublisher.publishEvent(ProductChangedEvent.created(productsToSave));
         }
         return Map.of(
                 "message", "📊 Productos insertados: " + productsToSave.size(),
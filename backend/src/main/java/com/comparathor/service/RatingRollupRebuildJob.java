@@ -0,0 +1,34 @@
+package com.comparathor.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Relleno de rating_daily_rollups al arrancar. Se activa una vez con
+ * comparathor.ratings.rollup.rebuild-on-startup=true en el primer despliegue
+ * tras la migración 007, para recoger las valoraciones escritas entre la
+ * migración y el código que anota deltas, y se vuelve a desactivar.
+ */
+@Component
+@ConditionalOnProperty(name = "comparathor.ratings.rollup.rebuild-on-startup", havingValue = "true")
+public class RatingRollupRebuildJob implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(RatingRollupRebuildJob.class);
+
+    private final RatingTrendService ratingTrendService;
+
+    public RatingRollupRebuildJob(RatingTrendService ratingTrendService) {
+        this.ratingTrendService = ratingTrendService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        int buckets = ratingTrendService.rebuildRollups();
+        logger.info("Agregados diarios de valoraciones reconstruidos: {} en {} ms",
+                buckets, System.currentTimeMillis() - start);
+    }
+}
@@ -1,26 +1,55 @@
 package com.comparathor.service;
 
+import com.comparathor.event.RatingChangedEvent;
 import com.comparathor.exception.BadRequestException;
 import com.comparathor.exception.ResourceNotFoundException;
 import com.comparathor.model.Rating;
+import com.comparathor.model.RatingSummary;
 import com.comparathor.repository.RatingRepository;
+import com.comparathor.utils.FieldSelection;
+import com.comparathor.utils.KeysetCursor;
+import com.comparathor.utils.TotalMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class RatingService {
     private static final Logger logger = LoggerFactory.getLogger(RatingService.class);
+    private static final String CURSOR_SORT_FIELD = "createdAt";
+    public static final int MAX_BATCH_IDS = 500;
+    private static final FieldSelection<Rating> RATING_FIELDS = FieldSelection.<Rating>builder()
+            .field("id", Rating::getId)
+            .field("userId", Rating::getUserId)
+            .field("productId", Rating::getProductId)
+            .field("rating", Rating::getRating)
+            .field("comment", Rating::getComment)
+            .field("createdAt", Rating::getCreatedAt)
+            .field("updatedAt", Rating::getUpdatedAt)
+            .field("product", Rating::getProduct)
+            .build();
     private final RatingRepository ratingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RatingTrendService ratingTrendService;
 
-    public RatingService(RatingRepository ratingRepository) {
+    public RatingService(RatingRepository ratingRepository, ApplicationEventPublisher eventPublisher,
+                         RatingTrendService ratingTrendService) {
         this.ratingRepository = ratingRepository;
+        this.eventPublisher = eventPublisher;
+        this.ratingTrendService = ratingTrendService;
     }
 
     @Transactional(readOnly = true)
@@ -36,49 +65,183 @@ public class RatingService {
     public Map<String, Object> getFilteredRatings(Long productId, Long userId,
                                                   Double minRating,
                                                   LocalDateTime startDate, LocalDateTime endDate,
-                                                  int page, int size, String sortField, String sortOrder) {
+                                                  int page, int size, String sortField, String sortOrder,
+                                                  TotalMode totalMode, String fields) {
         size = Math.max(size, 10);
-        int totalRatings = ratingRepository.countFilteredRatings(productId, userId, minRating, startDate, endDate);
-        if (totalRatings == 0) {
+        Set<String> selectedFields = RATING_FIELDS.parse(fields);
+        Integer totalRatings = totalMode.resolve(
+                () -> ratingRepository.countFilteredRatings(productId, userId, minRating, startDate, endDate),
+                () -> ratingRepository.estimateFilteredRatings(productId, userId, minRating, startDate, endDate));
+        if (totalMode == TotalMode.EXACT && totalRatings == 0) {
             logger.warn("No se encontraron ratings con los filtros proporcionados.");
             return Map.of(
                     "content", List.of(),
                     "total", 0,
+                    "totalMode", totalMode.getValue(),
                     "page", 1,
                     "size", size
             );
         }
-        int totalPages = (int) Math.ceil((double) totalRatings / size);
-        page = Math.max(1, Math.min(page, totalPages)) - 1;
-        int offset = Math.min(page * size, totalRatings - size);
-        offset = Math.max(offset, 0);
-        List<Rating> ratings = ratingRepository.findFilteredRatings(productId, userId, minRating, startDate, endDate, size, offset, sortField, sortOrder);
-        return Map.of(
-                "content", ratings,
-                "total", totalRatings,
-                "page", page + 1,
-                "size", size
-        );
+        int offset;
+        if (totalMode == TotalMode.EXACT) {
+            int totalPages = (int) Math.ceil((double) totalRatings / size);
+            page = Math.max(1, Math.min(page, totalPages)) - 1;
+            offset = Math.min(page * size, totalRatings - size);
+            offset = Math.max(offset, 0);
+        } else {
+            // Sin total exacto no se puede acotar la página: se respeta la pedida.
+            page = Math.max(1, page) - 1;
+            offset = page * size;
+        }
+        List<Rating> ratings = ratingRepository.findFilteredRatings(productId, userId, minRating, startDate, endDate, size, offset, sortField, sortOrder, selectedFields);
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", RATING_FIELDS.project(ratings, selectedFields));
+        if (totalRatings != null) {
+            response.put("total", totalRatings);
+        }
+        response.put("totalMode", totalMode.getValue());
+        response.put("page", page + 1);
+        response.put("size", size);
+        return response;
+    }
+
+    /**
+     * Paginación por keyset sobre (created_at, id): no cuenta ni salta filas,
+     * así que el coste de cada página no depende de su posición.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getRatingsByCursor(Long productId, Long userId, Double minRating,
+                                                  LocalDateTime startDate, LocalDateTime endDate,
+                                                  String cursor, int size, String sortField, String sortOrder,
+                                                  TotalMode totalMode, String fields) {
+        if (sortField != null && !CURSOR_SORT_FIELD.equals(sortField)) {
+            throw new BadRequestException("La paginación por cursor de ratings solo admite sortField=createdAt.");
+        }
+        size = (size <= 0) ? 10 : size;
+        sortOrder = "asc".equalsIgnoreCase(sortOrder) ? "asc" : "desc";
+
+        Set<String> selectedFields = RATING_FIELDS.parse(fields);
+        Set<String> queryFields = selectedFields;
+        if (selectedFields != null && !selectedFields.contains(CURSOR_SORT_FIELD)) {
+            // El siguiente cursor necesita created_at de la última fila.
+            queryFields = new LinkedHashSet<>(selectedFields);
+            queryFields.add(CURSOR_SORT_FIELD);
+        }
+
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+            if (!keysetCursor.matches(CURSOR_SORT_FIELD, sortOrder) || keysetCursor.getValue() == null) {
+                throw new BadRequestException("El cursor no corresponde a la ordenación solicitada.");
+            }
+            try {
+                afterCreatedAt = LocalDateTime.parse(keysetCursor.getValue());
+            } catch (Exception e) {
+                throw new BadRequestException("Cursor inválido.");
+            }
+            afterId = keysetCursor.getId();
+        }
+
+        List<Rating> ratings = ratingRepository.findFilteredRatingsAfter(productId, userId, minRating, startDate, endDate,
+                afterCreatedAt, afterId, size + 1, sortOrder, queryFields);
+        boolean hasMore = ratings.size() > size;
+        if (hasMore) {
+            ratings = new ArrayList<>(ratings.subList(0, size));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            Rating last = ratings.get(ratings.size() - 1);
+            nextCursor = new KeysetCursor(CURSOR_SORT_FIELD, sortOrder, last.getCreatedAt().toString(), last.getId()).encode();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", RATING_FIELDS.project(ratings, selectedFields));
+        response.put("size", size);
+        response.put("sortField", CURSOR_SORT_FIELD);
+        response.put("sortOrder", sortOrder);
+        response.put("hasMore", hasMore);
+        response.put("nextCursor", nextCursor);
+        Integer total = totalMode.resolve(
+                () -> ratingRepository.countFilteredRatings(productId, userId, minRating, startDate, endDate),
+                () -> ratingRepository.estimateFilteredRatings(productId, userId, minRating, startDate, endDate));
+        if (total != null) {
+            response.put("total", total);
+        }
+        response.put("totalMode", totalMode.getValue());
+        return response;
     }
 
+    /**
+     * Alta o sustitución de la valoración del usuario para el producto (una
+     * por par, uq_ratings_user_product). La fila existente se bloquea antes
+     * de modificarla para que el resumen reciba la diferencia correcta; si
+     * otra petición inserta a la vez, el INSERT no hace nada y se actualiza
+     * la fila que ganó.
+     */
     @Transactional
     public Map<String, Object> registerRating(Long userId, Long productId, Double rating, String comment) {
         if (rating == null || rating < 1 || rating > 5) {
             throw new BadRequestException("Rating must be between 1 and 5.");
         }
 
-        Rating newRating = new Rating();
-        newRating.setUserId(userId);
-        newRating.setProductId(productId);
-        newRating.setRating(rating);
-        newRating.setComment(comment);
         LocalDateTime now = LocalDateTime.now();
-        newRating.setCreatedAt(now);
-        newRating.setUpdatedAt(now);
-        ratingRepository.save(newRating);
+        Rating existingRating = ratingRepository.findByUserAndProductForUpdate(userId, productId);
+        if (existingRating == null) {
+            Rating newRating = new Rating();
+            newRating.setUserId(userId);
+            newRating.setProductId(productId);
+            newRating.setRating(rating);
+            newRating.setComment(comment);
+            newRating.setCreatedAt(now);
+            newRating.setUpdatedAt(now);
+            if (ratingRepository.save(newRating) == 1) {
+                updateAggregates(newRating, null, rating);
+                eventPublisher.publishEvent(new RatingChangedEvent(RatingChangedEvent.Type.CREATED, newRating.getId(), productId));
+                Map<String, Object> response = new HashMap<>();
+                response.put("message", "Rating registrado con éxito.");
+                response.put("rating", newRating);
+                return response;
+            }
+            existingRating = ratingRepository.findByUserAndProductForUpdate(userId, productId);
+        }
+
+        Double previousRating = existingRating.getRating();
+        existingRating.setRating(rating);
+        existingRating.setComment(comment);
+        existingRating.setUpdatedAt(now);
+        ratingRepository.updateRating(existingRating.getId(), rating, comment, now);
+        if (!rating.equals(previousRating)) {
+            updateAggregates(existingRating, previousRating, rating);
+        }
+        eventPublisher.publishEvent(new RatingChangedEvent(RatingChangedEvent.Type.UPDATED, existingRating.getId(), productId));
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Rating actualizado con éxito.");
+        response.put("rating", existingRating);
+        return response;
+    }
+
+    /**
+     * Valoraciones del usuario para un lote de productos, indexadas por id de
+     * producto; los productos sin valoración no aparecen.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getUserRatingsForProducts(Long userId, List<Long> productIds) {
+        List<Long> requested = (productIds == null) ? List.of()
+                : productIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (requested.isEmpty()) {
+            throw new BadRequestException("Se requiere al menos un productId.");
+        }
+        if (requested.size() > MAX_BATCH_IDS) {
+            throw new BadRequestException("Solo se pueden consultar " + MAX_BATCH_IDS + " productos por petición.");
+        }
+        Map<Long, Rating> ratingsByProduct = new LinkedHashMap<>();
+        for (Rating rating : ratingRepository.findByUserAndProducts(userId, requested.toArray(Long[]::new))) {
+            ratingsByProduct.put(rating.getProductId(), rating);
+        }
         Map<String, Object> response = new HashMap<>();
-        response.put("message", "Rating registrado con éxito.");
-        response.put("rating", newRating);
+        response.put("userId", userId);
+        response.put("ratings", ratingsByProduct);
         return response;
     }
 
@@ -93,11 +256,17 @@ public class RatingService {
             throw new BadRequestException("Rating must be between 1 and 5.");
         }
 
+        Double previousRating = existingRating.getRating();
         existingRating.setRating(rating != null ? rating : existingRating.getRating());
         existingRating.setComment(comment != null ? comment : existingRating.getComment());
         existingRating.setUpdatedAt(LocalDateTime.now());
 
         ratingRepository.updateRating(existingRating.getId(), existingRating.getRating(), existingRating.getComment(), existingRating.getUpdatedAt());
+        if (!existingRating.getRating().equals(previousRating)) {
+            updateAggregates(existingRating, previousRating, existingRating.getRating());
+        }
+        eventPublisher.publishEvent(new RatingChangedEvent(RatingChangedEvent.Type.UPDATED,
+                existingRating.getId(), existingRating.getProductId()));
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Rating actualizado con éxito.");
@@ -106,21 +275,82 @@ public class RatingService {
 
     @Transactional
     public void deleteRating(Long id) {
-        if (ratingRepository.existsById(id) == 0) {
+        Rating existingRating = ratingRepository.findById(id);
+        if (existingRating == null) {
             throw new ResourceNotFoundException("Rating not found with ID: " + id);
         }
         logger.info("Eliminando calificación con ID {}", id);
         ratingRepository.deleteById(id);
+        updateAggregates(existingRating, existingRating.getRating(), null);
+        eventPublisher.publishEvent(new RatingChangedEvent(RatingChangedEvent.Type.DELETED, id, existingRating.getProductId()));
     }
 
-    @Transactional(readOnly = true)
-    public List<Rating> getRatingsByProductId(Long productId) {
-        List<Rating> ratings = ratingRepository.findByProductId(productId);
-        if (ratings.isEmpty()) {
-            throw new ResourceNotFoundException("No ratings found for product ID: " + productId);
+    /**
+     * Borra las valoraciones de un usuario antes de borrarlo a él; si se
+     * dejaran al ON DELETE CASCADE de users, el resumen, los agregados
+     * diarios y las cachés seguirían contándolas. Cada una se descuenta igual
+     * que en deleteRating; como hay una por producto, sale un evento por
+     * producto afectado.
+     */
+    @Transactional
+    public void deleteRatingsByUserId(Long userId) {
+        List<Rating> deleted = ratingRepository.deleteByUserId(userId);
+        for (Rating rating : deleted) {
+            updateAggregates(rating, rating.getRating(), null);
+            eventPublisher.publishEvent(new RatingChangedEvent(RatingChangedEvent.Type.DELETED,
+                    rating.getId(), rating.getProductId()));
+        }
+        logger.info("Eliminadas {} valoraciones del usuario {}", deleted.size(), userId);
+    }
+
+    /**
+     * Recalcula product_rating_summary desde ratings. Pensado para el relleno
+     * inicial o para corregir una desviación; el mantenimiento normal es
+     * incremental en registerRating/editRating/deleteRating.
+     */
+    @Transactional
+    public int rebuildRatingSummaries() {
+        ratingRepository.lockRatingSummaries();
+        ratingRepository.deleteAllRatingSummaries();
+        return ratingRepository.rebuildRatingSummaries();
+    }
+
+    /**
+     * Aplica al resumen del producto y al agregado diario del día de creación
+     * la retirada de una valoración, la incorporación de otra, o ambas en el
+     * caso de una edición.
+     */
+    private void updateAggregates(Rating rating, Double removedRating, Double addedRating) {
+        RatingSummary delta = new RatingSummary(rating.getProductId(), 0, 0.0, null, 0, 0, 0, 0, 0);
+        if (removedRating != null) {
+            accumulate(delta, -1, removedRating);
+        }
+        if (addedRating != null) {
+            accumulate(delta, 1, addedRating);
         }
-        logger.info("Retrieved {} ratings for product ID: {}", ratings.size(), productId);
-        return ratings;
+        ratingRepository.applySummaryDelta(delta);
+        LocalDate day = rating.getCreatedAt() != null ? rating.getCreatedAt().toLocalDate() : LocalDate.now();
+        ratingTrendService.recordChange(rating.getProductId(), day, delta.getCount(), delta.getSum());
+    }
+
+    private void accumulate(RatingSummary delta, int sign, double rating) {
+        delta.setCount(delta.getCount() + sign);
+        delta.setSum(delta.getSum() + sign * rating);
+        switch ((int) Math.max(1, Math.min(5, Math.round(rating)))) {
+            case 1 -> delta.setStar1(delta.getStar1() + sign);
+            case 2 -> delta.setStar2(delta.getStar2() + sign);
+            case 3 -> delta.setStar3(delta.getStar3() + sign);
+            case 4 -> delta.setStar4(delta.getStar4() + sign);
+            default -> delta.setStar5(delta.getStar5() + sign);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getRatingsByProductId(Long productId, String cursor, int size, String sortOrder) {
+        Map<String, Object> response = getRatingsByCursor(productId, null, null, null, null,
+                cursor, size, null, sortOrder, TotalMode.NONE, null);
+        logger.info("Retrieved {} ratings for product ID: {}", ((List<?>) response.get("content")).size(), productId);
+        return response;
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,33 @@
+package com.comparathor.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Relleno de product_rating_summary al arrancar. Se activa una vez con
+ * comparathor.ratings.summary.rebuild-on-startup=true tras aplicar la
+ * migración 004 y se vuelve a desactivar.
+ */
+@Component
+@ConditionalOnProperty(name = "comparathor.ratings.summary.rebuild-on-startup", havingValue = "true")
+public class RatingSummaryRebuildJob implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(RatingSummaryRebuildJob.class);
+
+    private final RatingService ratingService;
+
+    public RatingSummaryRebuildJob(RatingService ratingService) {
+        this.ratingService = ratingService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        int products = ratingService.rebuildRatingSummaries();
+        logger.info("Resumen de valoraciones reconstruido para {} productos en {} ms",
+                products, System.currentTimeMillis() - start);
+    }
+}
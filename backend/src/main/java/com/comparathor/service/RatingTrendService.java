@@ -0,0 +1,107 @@
+package com.comparathor.service;
+
+import com.comparathor.exception.BadRequestException;
+import com.comparathor.model.RatingTrendPoint;
+import com.comparathor.repository.RatingRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tendencias diarias de valoraciones (nº y media por día) de un producto,
+ * marca o categoría, servidas desde rating_daily_rollups sin recorrer ratings.
+ */
+@Service
+public class RatingTrendService {
+    private static final Logger logger = LoggerFactory.getLogger(RatingTrendService.class);
+    private static final Set<String> SCOPES = Set.of("product", "brand", "category");
+    private static final long MAX_RANGE_DAYS = 3 * 366;
+
+    private final RatingRollupRepository ratingRollupRepository;
+
+    public RatingTrendService(RatingRollupRepository ratingRollupRepository) {
+        this.ratingRollupRepository = ratingRollupRepository;
+    }
+
+    /**
+     * Anota el cambio de una valoración en el día de su creación. Se llama
+     * desde RatingService dentro de la misma transacción.
+     */
+    public void recordChange(Long productId, LocalDate day, int countDelta, double sumDelta) {
+        ratingRollupRepository.appendDelta(productId, day, countDelta, sumDelta);
+    }
+
+    @Scheduled(initialDelayString = "${comparathor.ratings.rollup.compaction-interval:PT5M}",
+            fixedDelayString = "${comparathor.ratings.rollup.compaction-interval:PT5M}")
+    @Transactional
+    public void compactDeltas() {
+        long start = System.currentTimeMillis();
+        int buckets = ratingRollupRepository.compactDeltas();
+        if (buckets > 0) {
+            logger.info("Compactados deltas de valoraciones en {} agregados diarios en {} ms",
+                    buckets, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Recalcula rating_daily_rollups desde ratings y descarta los deltas
+     * pendientes, que ya están incluidos. Pensado para completar el relleno de
+     * la migración 007 o corregir una desviación; se puede repetir sin riesgo.
+     */
+    @Transactional
+    public int rebuildRollups() {
+        ratingRollupRepository.lockRollups();
+        ratingRollupRepository.deleteAllRollups();
+        return ratingRollupRepository.rebuildRollups();
+    }
+
+    /**
+     * Serie diaria entre from y to (por defecto, el último año). Los días sin
+     * valoraciones no aparecen.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getDailyTrend(String scope, Long id, LocalDate from, LocalDate to) {
+        String normalizedScope = scope == null ? "" : scope.trim().toLowerCase(Locale.ROOT);
+        if (!SCOPES.contains(normalizedScope)) {
+            throw new BadRequestException("scope inválido. Valores permitidos: product, brand, category.");
+        }
+        if (id == null) {
+            throw new BadRequestException("Se requiere el id del " + normalizedScope + ".");
+        }
+        LocalDate end = (to != null) ? to : LocalDate.now();
+        LocalDate begin = (from != null) ? from : end.minusYears(1);
+        if (begin.isAfter(end)) {
+            throw new BadRequestException("La fecha inicial no puede ser posterior a la final.");
+        }
+        if (ChronoUnit.DAYS.between(begin, end) > MAX_RANGE_DAYS) {
+            throw new BadRequestException("El rango máximo es de " + MAX_RANGE_DAYS + " días.");
+        }
+
+        List<RatingTrendPoint> points = ratingRollupRepository.findDailyTrend(normalizedScope, id, begin, end);
+        int totalCount = 0;
+        double totalSum = 0;
+        for (RatingTrendPoint point : points) {
+            totalCount += point.getCount();
+            totalSum += point.getSum();
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("scope", normalizedScope);
+        response.put("id", id);
+        response.put("from", begin);
+        response.put("to", end);
+        response.put("points", points);
+        response.put("count", totalCount);
+        response.put("average", totalCount > 0 ? totalSum / totalCount : null);
+        return response;
+    }
+}
@@ -41,6 +41,21 @@ public class UserSecurityService {
         }
     }
 
+    public Long getUserIdFromToken(String token) {
+        if (token == null || !token.startsWith("Bearer ")) {
+            throw new IllegalArgumentException("🚫Token inválido o no proporcionado.");
+        }
+        try {
+            Long userId = jwtUtil.extractUserId(token.substring(7));
+            if (userId != null) {
+                return userId;
+            }
+        } catch (Exception e) {
+            // se informa igual que un token sin el claim
+        }
+        throw new IllegalArgumentException("No se pudo extraer el id de usuario del token.");
+    }
+
     public boolean hasAnyRole(String token, String... roles) {
         if (token == null || !token.startsWith("Bearer ")) {
             return false;
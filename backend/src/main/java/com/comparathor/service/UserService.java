@@ -6,7 +6,10 @@ import com.comparathor.model.Role;
 import com.comparathor.model.User;
 import com.comparathor.repository.RoleRepository;
 import com.comparathor.repository.UserRepository;
+import com.comparathor.utils.TotalMode;
 import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
@@ -14,29 +17,44 @@ import java.util.*;
 
 @Service
 public class UserService {
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private  final  EmailService emailService;
+    private final RatingService ratingService;
+    private final ComparisonService comparisonService;
 
-    public UserService(UserRepository userRepository, RoleRepository roleRepository, EmailService emailService) {
+    public UserService(UserRepository userRepository, RoleRepository roleRepository, EmailService emailService,
+                       RatingService ratingService, ComparisonService comparisonService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.emailService = emailService;
+        this.ratingService = ratingService;
+        this.comparisonService = comparisonService;
     }
 
     public Map<String, Object> getFilteredUsers(String search, Long roleId, String searchTerm,
                                                 LocalDateTime startDate, LocalDateTime endDate,
-                                                int page, int size, String sortField, String sortOrder) {
+                                                int page, int size, String sortField, String sortOrder,
+                                                TotalMode totalMode) {
         size = (size <= 0) ? 10 : size;
-        int totalUsers = userRepository.countFilteredUsers(search,roleId, searchTerm, startDate, endDate);
-        int offset = (page * size >= totalUsers) ? Math.max(0, totalUsers - size) : page * size;
-        System.out.println("✅ Total usuarios: " + totalUsers);
-        System.out.println("✅ Offset corregido: " + offset);
+        Integer totalUsers = totalMode.resolve(
+                () -> userRepository.countFilteredUsers(search,roleId, searchTerm, startDate, endDate),
+                () -> userRepository.estimateFilteredUsers(search,roleId, searchTerm, startDate, endDate));
+        int offset = page * size;
+        if (totalMode == TotalMode.EXACT) {
+            offset = (page * size >= totalUsers) ? Math.max(0, totalUsers - size) : page * size;
+        }
         List<User> users = userRepository.findFilteredUsers(search,roleId, searchTerm, startDate, endDate, size, offset, sortField, sortOrder);
-        System.out.println("📌 Usuarios encontrados: " + users.size());
+        logger.debug("Usuarios encontrados: {} (offset {}, total {} en modo {})",
+                users.size(), offset, totalUsers, totalMode.getValue());
         Map<String, Object> response = new HashMap<>();
         response.put("content", users);
-        response.put("total", totalUsers);
+        if (totalUsers != null) {
+            response.put("total", totalUsers);
+        }
+        response.put("totalMode", totalMode.getValue());
         response.put("page", page);
         response.put("size", size);
         return response;
@@ -80,6 +98,8 @@ public class UserService {
         if (user == null) {
             throw new BadRequestException("El usuario con ID " + userId + " no existe.");
         }
+        ratingService.deleteRatingsByUserId(userId);
+        comparisonService.deleteComparisonsByUserId(userId);
         userRepository.delete(userId);
     }
 
@@ -0,0 +1,80 @@
+package com.comparathor.utils;
+
+import com.comparathor.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Campos que admite el parámetro fields= de un listado. parse() valida la
+ * lista pedida (el id se incluye siempre) y project() reduce cada elemento a
+ * esos campos; el mismo conjunto se pasa al mapper para podar el SELECT.
+ */
+public class FieldSelection<T> {
+    private final Map<String, Function<T, Object>> accessors;
+
+    private FieldSelection(Map<String, Function<T, Object>> accessors) {
+        this.accessors = accessors;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Devuelve null cuando no se pide ningún campo, es decir, todos.
+     */
+    public Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!accessors.containsKey(trimmed)) {
+                throw new BadRequestException("Campo no permitido en fields: " + trimmed
+                        + ". Valores permitidos: " + String.join(", ", accessors.keySet()));
+            }
+            selected.add(trimmed);
+        }
+        return Collections.unmodifiableSet(selected);
+    }
+
+    public List<?> project(List<T> items, Set<String> selected) {
+        if (selected == null) {
+            return items;
+        }
+        List<Map<String, Object>> projected = new ArrayList<>(items.size());
+        for (T item : items) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (String field : selected) {
+                values.put(field, accessors.get(field).apply(item));
+            }
+            projected.add(values);
+        }
+        return projected;
+    }
+
+    public static class Builder<T> {
+        private final Map<String, Function<T, Object>> accessors = new LinkedHashMap<>();
+
+        public Builder<T> field(String name, Function<T, Object> accessor) {
+            accessors.put(name, accessor);
+            return this;
+        }
+
+        public FieldSelection<T> build() {
+            return new FieldSelection<>(Collections.unmodifiableMap(accessors));
+        }
+    }
+}
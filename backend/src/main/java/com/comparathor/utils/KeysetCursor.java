@@ -0,0 +1,72 @@
+package com.comparathor.utils;
+
+import com.comparathor.exception.BadRequestException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cursor opaco para paginación por keyset: guarda la ordenación usada y la
+ * última fila devuelta (valor del campo de orden + id como desempate).
+ */
+@Getter
+public class KeysetCursor {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String sortField;
+    private final String sortOrder;
+    private final String value;
+    private final Long id;
+
+    public KeysetCursor(String sortField, String sortOrder, String value, Long id) {
+        this.sortField = sortField;
+        this.sortOrder = sortOrder;
+        this.value = value;
+        this.id = id;
+    }
+
+    public String encode() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("f", sortField);
+        payload.put("o", sortOrder);
+        payload.put("v", value);
+        payload.put("i", id);
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(payload);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudo generar el cursor.", e);
+        }
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor);
+            Map<String, Object> payload = objectMapper.readValue(json, new TypeReference<>() {
+            });
+            Object id = payload.get("i");
+            if (id == null) {
+                throw new BadRequestException("Cursor inválido.");
+            }
+            Object value = payload.get("v");
+            return new KeysetCursor(
+                    (String) payload.get("f"),
+                    (String) payload.get("o"),
+                    value != null ? value.toString() : null,
+                    Long.valueOf(id.toString()));
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BadRequestException("Cursor inválido.");
+        }
+    }
+
+    public boolean matches(String sortField, String sortOrder) {
+        return sortField.equals(this.sortField) && sortOrder.equals(this.sortOrder);
+    }
+}
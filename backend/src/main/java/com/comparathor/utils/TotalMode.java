@@ -0,0 +1,56 @@
+package com.comparathor.utils;
+
+import com.comparathor.exception.BadRequestException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Tipo de total que acompaña a un listado: COUNT(*) exacto, estimación del
+ * planner (EXPLAIN, no recorre las filas) o ninguno.
+ */
+public enum TotalMode {
+    EXACT, ESTIMATE, NONE;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static TotalMode from(String value, TotalMode defaultMode) {
+        if (value == null || value.isBlank()) {
+            return defaultMode;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("totalMode inválido. Valores permitidos: exact, estimate, none.");
+        }
+    }
+
+    public String getValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Calcula el total según el modo: null con NONE.
+     *
+     * @param exactCount   consulta COUNT(*)
+     * @param explainPlan  consulta EXPLAIN (FORMAT JSON) de los mismos filtros
+     */
+    public Integer resolve(Supplier<Integer> exactCount, Supplier<String> explainPlan) {
+        return switch (this) {
+            case EXACT -> exactCount.get();
+            case ESTIMATE -> estimatedRows(explainPlan.get());
+            case NONE -> null;
+        };
+    }
+
+    private static int estimatedRows(String explainJson) {
+        try {
+            JsonNode plan = objectMapper.readTree(explainJson).path(0).path("Plan");
+            return (int) Math.min(Integer.MAX_VALUE, Math.round(plan.path("Plan Rows").asDouble()));
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudo leer la estimación del planner.", e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.comparathor.catalog;
+
+import com.comparathor.model.Product;
+import com.comparathor.model.ProductFilter;
+import com.comparathor.repository.PostgresMapperTest;
+import com.comparathor.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El catálogo columnar devuelve los mismos ids, en el mismo orden, y el mismo
+ * total que el listado SQL, incluidos los NULL (al final en ASC, al principio
+ * en DESC), los valores repetidos y las páginas intermedias.
+ */
+class ColumnarProductCatalogTest extends PostgresMapperTest {
+    private static final int PAGE_SIZE = 7;
+    private static final List<String> SORT_FIELDS = List.of("id", "price", "stock", "createdAt");
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private DataSource dataSource;
+
+    private ColumnarProductCatalog catalog;
+    private Long categoryId;
+    private Long brandId;
+
+    @BeforeEach
+    void setUp() {
+        // Precios, stocks y fechas repetidos y con NULL, y productos sin categoría ni marca
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO categories (name) VALUES ('Móviles'), ('Portátiles'), ('Televisores')");
+        jdbc.update("INSERT INTO brands (name) VALUES ('Samsung'), ('Apple')");
+        jdbc.update("""
+                INSERT INTO products (name, category_id, brand_id, price, stock, created_at)
+                SELECT 'Producto ' || n,
+                       CASE WHEN n % 9 = 0 THEN NULL ELSE (SELECT min(id) FROM categories) + n % 3 END,
+                       CASE WHEN n % 8 = 0 THEN NULL ELSE (SELECT min(id) FROM brands) + n % 2 END,
+                       CASE WHEN n % 10 = 0 THEN NULL ELSE (n % 13) * 10 END,
+                       CASE WHEN n % 7 = 0 THEN NULL ELSE n % 5 END,
+                       CASE WHEN n % 11 = 0 THEN NULL ELSE TIMESTAMP '2024-01-01 10:00' + (n % 17) * INTERVAL '1 day' END
+                FROM generate_series(1, 120) n
+                """);
+        categoryId = jdbc.queryForObject("SELECT min(id) FROM categories", Long.class);
+        brandId = jdbc.queryForObject("SELECT min(id) FROM brands", Long.class);
+
+        catalog = new ColumnarProductCatalog(productRepository, new TransactionTemplate(transactionManager));
+        catalog.rebuild();
+    }
+
+    @Test
+    void sinFiltrosCoincideConSqlEnTodasLasOrdenacionesYPaginas() {
+        assertSameAsSql(ProductFilter.of(null, null, null, null, null, null, null, null, null));
+    }
+
+    @Test
+    void filtrosDeCategoriaYMarcaCoincidenConSql() {
+        assertSameAsSql(ProductFilter.of(null, categoryId, null, null, null, null, null, null, null));
+        assertSameAsSql(ProductFilter.of(null, categoryId, brandId, null, null, null, null, null, null));
+    }
+
+    @Test
+    void rangosExcluyenLosNullComoEnSql() {
+        assertSameAsSql(ProductFilter.of(null, null, null, 30.0, 90.0, null, null, null, null));
+        assertSameAsSql(ProductFilter.of(null, null, null, null, null, 1, 3, null, null));
+        assertSameAsSql(ProductFilter.of(null, null, brandId, null, null, null, null,
+                LocalDateTime.of(2024, 1, 3, 10, 0), LocalDateTime.of(2024, 1, 10, 10, 0)));
+    }
+
+    @Test
+    void paginaFueraDelTotalSeAjustaComoEnSql() {
+        ProductFilter filter = ProductFilter.of(null, categoryId, null, null, null, null, null, null, null);
+        int total = productRepository.countFilteredProducts(
+                null, null, categoryId, null, null, null, null, null, null, null);
+
+        CatalogPage page = catalog.query(filter, "price", "desc", 100, PAGE_SIZE, true);
+
+        assertThat(page.total()).isEqualTo(total);
+        assertThat(page.productIds()).containsExactly(
+                sqlIds(filter, "price", "desc", Math.max(0, total - PAGE_SIZE)));
+    }
+
+    private void assertSameAsSql(ProductFilter filter) {
+        int total = productRepository.countFilteredProducts(null, null, filter.getCategoryId(), filter.getBrandId(),
+                filter.getMinPrice(), filter.getMaxPrice(), filter.getMinStock(), filter.getMaxStock(),
+                filter.getStartDate(), filter.getEndDate());
+        int pages = (total + PAGE_SIZE - 1) / PAGE_SIZE;
+        for (String sortField : SORT_FIELDS) {
+            for (String sortOrder : List.of("asc", "desc")) {
+                for (int page = 0; page <= pages; page++) {
+                    CatalogPage result = catalog.query(filter, sortField, sortOrder, page, PAGE_SIZE, false);
+
+                    assertThat(result.total()).as("total").isEqualTo(total);
+                    assertThat(result.productIds())
+                            .as("%s %s página %d", sortField, sortOrder, page)
+                            .containsExactly(sqlIds(filter, sortField, sortOrder, page * PAGE_SIZE));
+                }
+            }
+        }
+    }
+
+    private long[] sqlIds(ProductFilter filter, String sortField, String sortOrder, int offset) {
+        List<Product> products = productRepository.findFilteredProducts(null, null,
+                filter.getCategoryId(), filter.getBrandId(), filter.getMinPrice(), filter.getMaxPrice(),
+                filter.getMinStock(), filter.getMaxStock(), filter.getStartDate(), filter.getEndDate(),
+                PAGE_SIZE, offset, sortField, sortOrder, null);
+        return products.stream().mapToLong(Product::getId).toArray();
+    }
+}
@@ -0,0 +1,144 @@
+package com.comparathor.repository;
+
+import com.comparathor.model.Comparison;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los filtros por producto con EXISTS devuelven las mismas comparaciones, en
+ * el mismo orden, y el mismo total que la consulta anterior con LEFT JOIN y
+ * DISTINCT: una comparación entra si uno de sus productos cumple todos los
+ * filtros a la vez.
+ */
+class ComparisonRepositoryFilterTest extends PostgresMapperTest {
+    private static final int PAGE_SIZE = 6;
+
+    // Consulta anterior a EXISTS, con categoría y marca leídas de sus tablas
+    private static final String DISTINCT_FROM = """
+            FROM comparisons c
+            LEFT JOIN comparison_products cp ON c.id = cp.comparison_id
+            LEFT JOIN products p ON cp.product_id = p.id
+            LEFT JOIN categories cat ON cat.id = p.category_id
+            LEFT JOIN brands b ON b.id = p.brand_id
+            WHERE (CAST(:userId AS bigint) IS NULL OR c.user_id = :userId)
+              AND (CAST(:title AS text) IS NULL OR c.title ILIKE '%' || :title || '%')
+              AND (CAST(:name AS text) IS NULL OR p.name ILIKE '%' || :name || '%')
+              AND (CAST(:category AS text) IS NULL OR cat.name ILIKE '%' || :category || '%')
+              AND (CAST(:price AS numeric) IS NULL OR p.price = :price)
+              AND (CAST(:stock AS integer) IS NULL OR p.stock = :stock)
+              AND (CAST(:brand AS text) IS NULL OR b.name ILIKE '%' || :brand || '%')
+              AND (CAST(:model AS text) IS NULL OR p.model ILIKE '%' || :model || '%')
+            """;
+
+    @Autowired
+    private ComparisonRepository comparisonRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    private NamedParameterJdbcTemplate namedJdbc;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        // Varios productos por comparación, algunas sin productos y fechas repetidas para probar el desempate
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO roles (name) VALUES ('USER')");
+        jdbc.update("INSERT INTO users (name, email, password, role_id) "
+                + "SELECT 'Usuario ' || n, 'usuario' || n || '@comparathor.test', 'x', (SELECT id FROM roles) "
+                + "FROM generate_series(1, 2) n");
+        jdbc.update("INSERT INTO categories (name) VALUES ('Móviles'), ('Televisores')");
+        jdbc.update("INSERT INTO brands (name) VALUES ('Samsung'), ('Apple')");
+        jdbc.update("""
+                INSERT INTO products (name, category_id, brand_id, model, price, stock)
+                SELECT (ARRAY['Galaxy', 'iPhone', 'QLED', 'Pixel'])[n % 4 + 1] || ' ' || n,
+                       CASE WHEN n % 3 = 2 THEN NULL ELSE (SELECT min(id) FROM categories) + n % 3 END,
+                       (SELECT min(id) FROM brands) + n % 2,
+                       'M' || n % 6,
+                       (n % 5) * 100,
+                       n % 4
+                FROM generate_series(1, 30) n
+                """);
+        jdbc.update("""
+                INSERT INTO comparisons (title, user_id, created_at)
+                SELECT 'Comparación ' || n, (SELECT min(id) FROM users) + n % 2,
+                       TIMESTAMP '2024-01-01' + (n % 5) * INTERVAL '1 day'
+                FROM generate_series(1, 40) n
+                """);
+        jdbc.update("""
+                INSERT INTO comparison_products (comparison_id, product_id)
+                SELECT c.id, p.id
+                FROM comparisons c
+                JOIN products p ON (p.id + c.id) % 7 < c.id % 4
+                """);
+        userId = jdbc.queryForObject("SELECT min(id) FROM users", Long.class);
+        namedJdbc = new NamedParameterJdbcTemplate(jdbc);
+    }
+
+    @Test
+    void sinFiltrosDeProducto() {
+        assertSameAsDistinct(new Filters(null, null, null, null, null, null, null, null));
+        assertSameAsDistinct(new Filters(userId, "1", null, null, null, null, null, null));
+    }
+
+    @Test
+    void unFiltroDeProducto() {
+        assertSameAsDistinct(new Filters(null, null, "galaxy", null, null, null, null, null));
+        assertSameAsDistinct(new Filters(null, null, null, "móv", null, null, null, null));
+    }
+
+    @Test
+    void variosFiltrosDeProductoDebenCumplirseEnElMismoProducto() {
+        assertSameAsDistinct(new Filters(null, null, "galaxy", null, null, null, "apple", null));
+        assertSameAsDistinct(new Filters(null, null, null, "tele", null, null, "sam", "m1"));
+        assertSameAsDistinct(new Filters(null, null, null, null, 200.0, 2, null, null));
+        assertSameAsDistinct(new Filters(userId, "comparación", "pixel", null, null, 3, "apple", null));
+    }
+
+    private void assertSameAsDistinct(Filters filters) {
+        MapSqlParameterSource params = filters.params();
+        List<Long> expected = namedJdbc.queryForList(
+                "SELECT DISTINCT c.id, c.created_at " + DISTINCT_FROM + " ORDER BY c.created_at ASC, c.id",
+                params).stream().map(row -> ((Number) row.get("id")).longValue()).toList();
+        Integer expectedTotal = namedJdbc.queryForObject("SELECT COUNT(DISTINCT c.id) " + DISTINCT_FROM,
+                params, Integer.class);
+
+        int total = comparisonRepository.countFilteredComparisons(filters.userId(), filters.title(), null, null,
+                filters.name(), filters.category(), filters.price(), filters.stock(), filters.brand(),
+                filters.model(), null);
+        assertThat(total).as("total %s", filters).isEqualTo(expectedTotal).isEqualTo(expected.size());
+
+        for (int offset = 0; offset <= expected.size(); offset += PAGE_SIZE) {
+            List<Long> page = comparisonRepository.findFilteredComparisons(filters.userId(), filters.title(),
+                            null, null, filters.name(), filters.category(), filters.price(), filters.stock(),
+                            filters.brand(), filters.model(), null, PAGE_SIZE, offset, "createdAt", "asc", null)
+                    .stream().map(Comparison::getId).toList();
+            assertThat(page)
+                    .as("%s desde %d", filters, offset)
+                    .containsExactlyElementsOf(expected.subList(offset, Math.min(expected.size(), offset + PAGE_SIZE)));
+        }
+    }
+
+    private record Filters(Long userId, String title, String name, String category, Double price, Integer stock,
+                           String brand, String model) {
+        MapSqlParameterSource params() {
+            return new MapSqlParameterSource()
+                    .addValue("userId", userId)
+                    .addValue("title", title)
+                    .addValue("name", name)
+                    .addValue("category", category)
+                    .addValue("price", price)
+                    .addValue("stock", stock)
+                    .addValue("brand", brand)
+                    .addValue("model", model);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.comparathor.repository;
+
+import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Base de los tests de mappers contra un PostgreSQL real: arranca un único
+ * contenedor para toda la ejecución, crea el esquema base (db/schema.sql) y
+ * aplica encima las migraciones de scripts/migrations en orden.
+ *
+ * Cada test corre en una transacción que se deshace al terminar, así que los
+ * datos que inserta no se ven desde los demás. Sin Docker los tests se saltan.
+ */
+@MybatisTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StatementCounter.class)
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresMapperTest {
+    private static final Path MIGRATIONS = Path.of("scripts", "migrations");
+
+    private static PostgreSQLContainer<?> postgres;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        PostgreSQLContainer<?> container = startPostgres();
+        registry.add("spring.datasource.url", container::getJdbcUrl);
+        registry.add("spring.datasource.username", container::getUsername);
+        registry.add("spring.datasource.password", container::getPassword);
+        // Sin caché local de sesión: cada llamada a un mapper llega a la base de datos y se cuenta
+        registry.add("mybatis.configuration.local-cache-scope", () -> "STATEMENT");
+    }
+
+    private static synchronized PostgreSQLContainer<?> startPostgres() {
+        if (postgres == null) {
+            PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+            applySchema(container);
+            postgres = container;
+        }
+        return postgres;
+    }
+
+    // Autocommit: las migraciones con CREATE INDEX CONCURRENTLY no pueden ir dentro de una transacción
+    private static void applySchema(PostgreSQLContainer<?> container) {
+        try (Connection connection = DriverManager.getConnection(
+                container.getJdbcUrl(), container.getUsername(), container.getPassword());
+             Stream<Path> files = Files.list(MIGRATIONS)) {
+            ScriptUtils.executeSqlScript(connection,
+                    new EncodedResource(new ClassPathResource("db/schema.sql"), StandardCharsets.UTF_8));
+            List<Path> migrations = files.filter(file -> file.toString().endsWith(".sql")).sorted().toList();
+            for (Path migration : migrations) {
+                ScriptUtils.executeSqlScript(connection,
+                        new EncodedResource(new FileSystemResource(migration), StandardCharsets.UTF_8));
+            }
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("No se pudo preparar el esquema de test", e);
+        }
+    }
+}
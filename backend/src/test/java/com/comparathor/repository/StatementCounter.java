@@ -0,0 +1,33 @@
+package com.comparathor.repository;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plugin de MyBatis que cuenta las sentencias SQL que se preparan, para fijar
+ * en los tests cuántas consultas cuesta una operación.
+ */
+@Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+public class StatementCounter implements Interceptor {
+    private final AtomicInteger statements = new AtomicInteger();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        statements.incrementAndGet();
+        return invocation.proceed();
+    }
+
+    public void reset() {
+        statements.set(0);
+    }
+
+    public int count() {
+        return statements.get();
+    }
+}
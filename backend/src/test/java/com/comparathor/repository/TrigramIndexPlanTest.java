@@ -0,0 +1,78 @@
+package com.comparathor.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los filtros de subcadena (ILIKE '%texto%') se resuelven con los índices GIN
+ * pg_trgm de la migración 002. Usa los mismos EXPLAIN que sirven el
+ * totalMode=estimate, así que el plan es el de las consultas reales.
+ */
+class TrigramIndexPlanTest extends PostgresMapperTest {
+    private static final int ROWS = 20_000;
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ComparisonRepository comparisonRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        // Textos aleatorios y unas pocas filas que coinciden, para que el filtro sea selectivo
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO roles (name) VALUES ('USER')");
+        jdbc.update("INSERT INTO products (name, description, model, price, stock) "
+                + "SELECT 'Producto ' || md5(n::text), md5('d' || n), md5('m' || n), n, n "
+                + "FROM generate_series(1, ?) n", ROWS);
+        jdbc.update("INSERT INTO products (name, description, model, price, stock) "
+                + "SELECT 'Samsung Galaxy ' || n, 'Móvil', 'SM-' || n, 999, 1 FROM generate_series(1, 5) n");
+        jdbc.update("INSERT INTO users (name, email, password, role_id) "
+                + "SELECT md5(n::text), md5('e' || n) || '@comparathor.test', 'x', (SELECT id FROM roles) "
+                + "FROM generate_series(1, ?) n", ROWS);
+        jdbc.update("INSERT INTO comparisons (title) SELECT 'Comparación ' || md5(n::text) FROM generate_series(1, ?) n", ROWS);
+        jdbc.execute("ANALYZE products");
+        jdbc.execute("ANALYZE users");
+        jdbc.execute("ANALYZE comparisons");
+    }
+
+    @Test
+    void busquedaDeProductosUsaLosTresIndicesTrigram() {
+        String plan = productRepository.estimateFilteredProducts(
+                "galaxy", null, null, null, null, null, null, null, null, null);
+
+        assertThat(plan)
+                .contains("idx_products_name_trgm")
+                .contains("idx_products_description_trgm")
+                .contains("idx_products_model_trgm")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void busquedaDeUsuariosUsaLosIndicesTrigramDeNombreYEmail() {
+        String plan = userRepository.estimateFilteredUsers("galaxy", null, null, null, null);
+
+        assertThat(plan)
+                .contains("idx_users_name_trgm")
+                .contains("idx_users_email_trgm");
+    }
+
+    @Test
+    void filtroPorTituloDeComparacionUsaSuIndiceTrigram() {
+        String plan = comparisonRepository.estimateFilteredComparisons(
+                null, "galaxy", null, null, null, null, null, null, null, null, null);
+
+        assertThat(plan)
+                .contains("idx_comparisons_title_trgm")
+                .doesNotContain("Seq Scan");
+    }
+}
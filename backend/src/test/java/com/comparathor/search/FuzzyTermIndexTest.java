@@ -0,0 +1,131 @@
+package com.comparathor.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FuzzyTermIndexTest {
+
+    private FuzzyTermIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FuzzyTermIndex();
+        for (String term : new String[]{"samsung", "galaxy", "iphone", "pixel", "xiaomi", "redmi", "sony", "bravia", "lg"}) {
+            index.add(term);
+        }
+    }
+
+    @Test
+    void transposicionCuentaComoUnaSolaEdicion() {
+        assertThat(FuzzyTermIndex.boundedDistance("samsnug", "samsung", 2)).isEqualTo(1);
+        assertThat(index.closest("samsnug", 5)).containsExactly("samsung");
+        assertThat(index.closest("galxay", 5)).containsExactly("galaxy");
+    }
+
+    @Test
+    void palabrasLargasAdmitenHastaDosEdiciones() {
+        assertThat(index.closest("iphome", 5)).containsExactly("iphone");
+        assertThat(index.closest("iphomr", 5)).containsExactly("iphone");
+        assertThat(index.closest("ipxomr", 5)).isEmpty();
+    }
+
+    @Test
+    void palabrasCortasAdmitenUnaSolaEdicion() {
+        assertThat(index.closest("soyn", 5)).containsExactly("sony");
+        assertThat(index.closest("sonx", 5)).containsExactly("sony");
+        assertThat(index.closest("sxny", 5)).containsExactly("sony");
+        assertThat(index.closest("sxnx", 5)).isEmpty();
+    }
+
+    @Test
+    void palabrasDeMenosDeTresLetrasNoSeCorrigen() {
+        assertThat(index.closest("lj", 5)).isEmpty();
+        assertThat(index.closest("lg", 5)).isEmpty();
+    }
+
+    @Test
+    void distanciaAcotadaAbandonaAlSuperarElMaximo() {
+        assertThat(FuzzyTermIndex.boundedDistance("bravia", "xiaomi", 2)).isEqualTo(3);
+        assertThat(FuzzyTermIndex.boundedDistance("pixel", "pixel", 2)).isZero();
+    }
+
+    @Test
+    void ordenaPorDistanciaYLuegoPorFrecuencia() {
+        index.add("redmi");
+        index.add("redme");
+        assertThat(index.closest("redmx", 5)).containsExactly("redmi", "redme");
+        assertThat(index.closest("redmi", 5)).containsExactly("redmi", "redme");
+    }
+
+    @Test
+    void quitarUnTerminoLoSacaDeLasSugerencias() {
+        index.add("pixel");
+        index.remove("pixel");
+        assertThat(index.closest("pixell", 5)).containsExactly("pixel");
+        index.remove("pixel");
+        assertThat(index.contains("pixel")).isFalse();
+        assertThat(index.closest("pixell", 5)).isEmpty();
+    }
+
+    /**
+     * Latencia de closest() sobre un vocabulario sintético de 50.000 términos.
+     * Solo se ejecuta con -Dbenchmark=true para no depender de la máquina en CI.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void latenciaP99SobreVocabularioGrande() {
+        Random random = new Random(42);
+        FuzzyTermIndex vocabulary = new FuzzyTermIndex();
+        List<String> terms = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            String term = randomWord(random, 4 + random.nextInt(9));
+            terms.add(term);
+            vocabulary.add(term);
+        }
+
+        int queries = 20_000;
+        long[] nanos = new long[queries];
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < queries; i++) {
+                String typo = withTypo(random, terms.get(random.nextInt(terms.size())));
+                long start = System.nanoTime();
+                vocabulary.closest(typo, 3);
+                nanos[i] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(nanos);
+        long p50 = nanos[queries / 2] / 1_000;
+        long p99 = nanos[queries * 99 / 100] / 1_000;
+        System.out.printf("closest(): p50=%d us, p99=%d us%n", p50, p99);
+        assertThat(p99).isLessThan(5_000);
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    private static String withTypo(Random random, String term) {
+        char[] chars = term.toCharArray();
+        int i = random.nextInt(chars.length - 1);
+        if (random.nextBoolean()) {
+            char swapped = chars[i];
+            chars[i] = chars[i + 1];
+            chars[i + 1] = swapped;
+        } else {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,96 @@
+package com.comparathor.service;
+
+import com.comparathor.model.Comparison;
+import com.comparathor.repository.ComparisonProductRepository;
+import com.comparathor.repository.ComparisonRepository;
+import com.comparathor.repository.PostgresMapperTest;
+import com.comparathor.repository.StatementCounter;
+import com.comparathor.utils.TotalMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Una página de comparaciones cuesta un número fijo de sentencias, sea cual
+ * sea su tamaño: el COUNT, la página y una sola carga de productos.
+ */
+class ComparisonServiceQueryCountTest extends PostgresMapperTest {
+
+    @Autowired
+    private ComparisonRepository comparisonRepository;
+    @Autowired
+    private ComparisonProductRepository comparisonProductRepository;
+    @Autowired
+    private StatementCounter statementCounter;
+    @Autowired
+    private DataSource dataSource;
+
+    private ComparisonService comparisonService;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO roles (name) VALUES ('USER')");
+        jdbc.update("INSERT INTO users (name, email, password, role_id) "
+                + "SELECT 'Ana', 'ana@comparathor.test', 'x', id FROM roles WHERE name = 'USER'");
+        jdbc.update("INSERT INTO products (name, price, stock) "
+                + "SELECT 'Producto ' || n, n * 10, n FROM generate_series(1, 20) n");
+        jdbc.update("INSERT INTO comparisons (title, user_id) "
+                + "SELECT 'Comparación ' || n, (SELECT id FROM users) FROM generate_series(1, 60) n");
+        jdbc.update("INSERT INTO comparison_products (comparison_id, product_id) "
+                + "SELECT c.id, p.id FROM comparisons c CROSS JOIN LATERAL "
+                + "(SELECT id FROM products ORDER BY (id + c.id) % 20 LIMIT 3) p");
+
+        // Las lecturas no tocan la co-ocurrencia ni publican eventos
+        comparisonService = new ComparisonService(comparisonRepository, comparisonProductRepository, null, event -> {
+        });
+        statementCounter.reset();
+    }
+
+    @Test
+    void paginaDe50ConProductosCuestaTresSentencias() {
+        Map<String, Object> page = page(50, null);
+
+        List<?> content = (List<?>) page.get("content");
+        assertThat(content).hasSize(50);
+        assertThat(content).allSatisfy(item -> {
+            Comparison comparison = (Comparison) item;
+            assertThat(comparison.getProductIds()).hasSize(3);
+            assertThat(comparison.getProducts()).hasSize(3);
+        });
+        assertThat(statementCounter.count()).isEqualTo(3);
+    }
+
+    @Test
+    void elNumeroDeSentenciasNoDependeDelTamanoDePagina() {
+        page(10, null);
+        int smallPage = statementCounter.count();
+        statementCounter.reset();
+        page(50, null);
+
+        assertThat(statementCounter.count()).isEqualTo(smallPage);
+    }
+
+    @Test
+    void soloIdsDeProductoCuestaTresSentenciasYSinProductosDos() {
+        page(50, "title,productIds");
+        assertThat(statementCounter.count()).isEqualTo(3);
+
+        statementCounter.reset();
+        page(50, "title");
+        assertThat(statementCounter.count()).isEqualTo(2);
+    }
+
+    private Map<String, Object> page(int size, String fields) {
+        return comparisonService.getFilteredComparisons(
+                null, null, null, null, 0, size, "createdAt", "asc",
+                null, null, null, null, null, null, null, TotalMode.EXACT, fields);
+    }
+}
@@ -0,0 +1,117 @@
+package com.comparathor.service;
+
+import com.comparathor.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tamaño de una página de 50 productos de GET /api/products, serializada como
+ * la sirve Spring, con y sin fields= y con y sin gzip.
+ */
+class ProductPayloadSizeTest {
+    private static final String[] SENTENCES = {
+            "Pantalla AMOLED de %d pulgadas a 120 Hz.",
+            "Procesador de %d núcleos con refrigeración por cámara de vapor.",
+            "Incluye %d GB de RAM y almacenamiento ampliable por microSD.",
+            "Triple cámara trasera de %d MP con estabilización óptica.",
+            "Batería de %d mAh con carga rápida por USB-C.",
+            "Panel IPS de %d nits con cobertura completa del espacio sRGB.",
+            "Hasta %d horas de autonomía en reproducción de vídeo.",
+            "Sonido envolvente con %d altavoces y certificación Dolby Atmos.",
+            "Peso de %d gramos y chasis de aluminio reciclado.",
+            "Garantía de %d meses y soporte técnico en español.",
+            "Compatible con Wi-Fi 6E y Bluetooth 5.%d.",
+            "Cuatro entradas HDMI 2.1 y modo de juego con %d ms de latencia."
+    };
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void fieldsYGzipReducenLaPagina() throws IOException {
+        List<Product> products = page(50);
+
+        byte[] full = json(response(ProductService.PRODUCT_FIELDS.project(products, null)));
+        Set<String> listFields = ProductService.PRODUCT_FIELDS.parse("name,price,brandName,ratingAverage");
+        byte[] sparse = json(response(ProductService.PRODUCT_FIELDS.project(products, listFields)));
+        int fullGzip = gzip(full).length;
+        int sparseGzip = gzip(sparse).length;
+
+        System.out.printf("Página de 50 productos: completa %d B (gzip %d B), fields=name,price,brandName,"
+                + "ratingAverage %d B (gzip %d B)%n", full.length, fullGzip, sparse.length, sparseGzip);
+        assertThat(sparse.length).isLessThan(full.length / 4);
+        assertThat(fullGzip).isLessThan(full.length / 3);
+        assertThat(sparseGzip).isLessThan(sparse.length / 2);
+    }
+
+    private byte[] json(Object value) throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    // Mismo GZIPOutputStream con el nivel por defecto que usa la compresión de Tomcat
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static Map<String, Object> response(List<?> content) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", content);
+        response.put("total", 1234);
+        response.put("totalMode", "exact");
+        response.put("page", 0);
+        response.put("size", content.size());
+        return response;
+    }
+
+    private static List<Product> page(int size) {
+        String[] brands = {"Samsung", "Apple", "Lenovo", "Sony", "Xiaomi"};
+        String[] categories = {"Móviles", "Portátiles", "Televisores", "Audio"};
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 9, 30, 15);
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            int brand = i % brands.length;
+            int category = i % categories.length;
+            products.add(new Product((long) i, brands[brand] + " Modelo " + (1000 + i * 37), (long) category + 1,
+                    categories[category], (long) brand + 1, brands[brand], 99.0 + i * 13.5, i % 40,
+                    description(random), "MX-" + (4000 + i * 7) + "/" + (char) ('A' + i % 26),
+                    "https://res.cloudinary.com/comparathor/image/upload/v1709285415/products/product_" + i + ".jpg",
+                    "admin@comparathor.com", i % 17, 3.0 + (i % 20) / 10.0,
+                    createdAt.plusHours(i * 5L), createdAt.plusDays(i)));
+        }
+        return products;
+    }
+
+    // Descripciones de 4 a 6 frases distintas por producto, con cifras propias
+    private static String description(Random random) {
+        StringBuilder description = new StringBuilder();
+        int sentences = 4 + random.nextInt(3);
+        for (int i = 0; i < sentences; i++) {
+            if (i > 0) {
+                description.append(' ');
+            }
+            description.append(String.format(SENTENCES[random.nextInt(SENTENCES.length)], 2 + random.nextInt(5000)));
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,81 @@
+-- Esquema base para los tests de mappers contra PostgreSQL (Testcontainers).
+-- Reproduce las tablas que usan los mappers; encima se aplican las migraciones de scripts/migrations.
+
+CREATE TABLE roles (
+    id              BIGSERIAL PRIMARY KEY,
+    name            VARCHAR(50) NOT NULL UNIQUE,
+    description     TEXT,
+    role_created_by VARCHAR(100),
+    created_at      TIMESTAMP DEFAULT now(),
+    updated_at      TIMESTAMP DEFAULT now()
+);
+
+CREATE TABLE users (
+    id         BIGSERIAL PRIMARY KEY,
+    name       VARCHAR(100) NOT NULL,
+    email      VARCHAR(150) NOT NULL UNIQUE,
+    password   VARCHAR(255) NOT NULL,
+    role_id    BIGINT REFERENCES roles (id),
+    created_at TIMESTAMP DEFAULT now(),
+    updated_at TIMESTAMP DEFAULT now()
+);
+
+CREATE TABLE brands (
+    id          BIGSERIAL PRIMARY KEY,
+    name        VARCHAR(100) NOT NULL,
+    logo_url    TEXT,
+    reliability INTEGER,
+    is_active   BOOLEAN DEFAULT TRUE,
+    created_at  TIMESTAMP DEFAULT now()
+);
+
+CREATE TABLE categories (
+    id          BIGSERIAL PRIMARY KEY,
+    name        VARCHAR(100) NOT NULL,
+    description TEXT,
+    color       VARCHAR(20),
+    is_active   BOOLEAN DEFAULT TRUE,
+    created_at  TIMESTAMP DEFAULT now()
+);
+
+CREATE TABLE products (
+    id          BIGSERIAL PRIMARY KEY,
+    name        VARCHAR(255),
+    category_id BIGINT REFERENCES categories (id) ON DELETE SET NULL,
+    brand_id    BIGINT REFERENCES brands (id) ON DELETE SET NULL,
+    price       NUMERIC(12, 2),
+    stock       INTEGER,
+    description TEXT,
+    model       VARCHAR(255),
+    image_url   TEXT,
+    created_by  VARCHAR(100),
+    created_at  TIMESTAMP DEFAULT now(),
+    updated_at  TIMESTAMP DEFAULT now()
+);
+
+CREATE TABLE ratings (
+    id         BIGSERIAL PRIMARY KEY,
+    user_id    BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    product_id BIGINT NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    rating     NUMERIC(3, 1) NOT NULL,
+    comment    TEXT,
+    created_at TIMESTAMP DEFAULT now(),
+    updated_at TIMESTAMP DEFAULT now()
+);
+
+CREATE TABLE comparisons (
+    id          BIGSERIAL PRIMARY KEY,
+    title       VARCHAR(255) NOT NULL,
+    description TEXT,
+    user_id     BIGINT REFERENCES users (id) ON DELETE CASCADE,
+    created_at  TIMESTAMP DEFAULT now(),
+    updated_at  TIMESTAMP DEFAULT now()
+);
+
+CREATE TABLE comparison_products (
+    id            BIGSERIAL PRIMARY KEY,
+    comparison_id BIGINT NOT NULL REFERENCES comparisons (id) ON DELETE CASCADE,
+    product_id    BIGINT NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    created_at    TIMESTAMP DEFAULT now(),
+    updated_at    TIMESTAMP DEFAULT now()
+);